@@ -0,0 +1,143 @@
+package com.todolist;
+
+import com.todolist.dao.TodoItemDao;
+import com.todolist.entity.TodoItem;
+import com.todolist.service.TagService;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 基准测试使用的应用上下文：以非Web方式启动后端，数据库为临时目录中的SQLite文件，关闭时删除。
+ * 配置与正式运行相同（WAL、写连接池、缓存等），只关闭了归档任务、组提交管道和调试日志。
+ */
+public final class BenchmarkContext implements AutoCloseable {
+
+    private static final String[] TAGS = {
+            "迁云项目-阿里云", "oracle云项目", "个人事项", "业务支撑", "hbase", "presto", "spark", "监控告警",
+            "调度", "文档", "值班", "性能优化", "数据治理", "成本", "安全", "测试", "发布", "故障复盘", "招聘", "学习"
+    };
+    private static final String[] WORDS = {
+            "排查", "升级", "迁移", "集群", "任务", "失败", "告警", "配置", "部署", "调通", "梳理", "文档", "回归", "测试", "优化"
+    };
+
+    private final Path directory;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(Path directory, ConfigurableApplicationContext context) {
+        this.directory = directory;
+        this.context = context;
+    }
+
+    public static BenchmarkContext start() throws IOException {
+        Path directory = Files.createTempDirectory("todolist-bench");
+        // 以命令行参数传入，优先于application.yml中的配置
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TodolistBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run("--spring.datasource.url=jdbc:sqlite:" + directory.resolve("todolist.db"),
+                        "--file.upload.path=" + directory.resolve("uploads"),
+                        "--archive.enabled=false",
+                        "--write-pipeline.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.todolist=WARN",
+                        "--logging.level.org.springframework.jdbc=WARN");
+        return new BenchmarkContext(directory, context);
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public <T> T getBean(String name, Class<T> type) {
+        return context.getBean(name, type);
+    }
+
+    /**
+     * 写入count条固定随机种子生成的待办事项，返回生成的ID
+     */
+    public List<Long> seed(int count) {
+        List<TodoItem> items = sampleItems(count, new Random(42));
+        Set<String> tags = new LinkedHashSet<>();
+        for (TodoItem item : items) {
+            tags.addAll(item.getTags());
+        }
+        getBean(TagService.class).ensureTags(tags);
+
+        TodoItemDao dao = getBean(TodoItemDao.class);
+        List<Long> ids = new ArrayList<>(count);
+        for (int from = 0; from < items.size(); from += 5000) {
+            for (TodoItem item : dao.insertAll(items.subList(from, Math.min(from + 5000, items.size())))) {
+                ids.add(item.getId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 生成与真实数据形态相近的待办事项：中文标题和描述、1到3个标签、部分带图片和完成时间
+     */
+    public static List<TodoItem> sampleItems(int count, Random random) {
+        LocalDateTime base = LocalDateTime.of(2025, 9, 1, 9, 0);
+        List<TodoItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TodoItem item = new TodoItem();
+            item.setTitle(words(random, 4) + " " + i);
+            item.setDescription(words(random, 24));
+            item.setPriority(1 + random.nextInt(3));
+            item.setStatus(random.nextInt(4));
+
+            Set<String> tags = new LinkedHashSet<>();
+            int tagCount = 1 + random.nextInt(3);
+            while (tags.size() < tagCount) {
+                tags.add(TAGS[random.nextInt(TAGS.length)]);
+            }
+            item.setTags(new ArrayList<>(tags));
+            List<String> imagePaths = new ArrayList<>();
+            if (random.nextInt(4) == 0) {
+                imagePaths.add("uploads/" + Long.toHexString(random.nextLong()) + ".png");
+            }
+            item.setImagePaths(imagePaths);
+
+            LocalDateTime createdAt = base.plusMinutes(random.nextInt(60 * 24 * 60));
+            item.setCreatedAt(createdAt);
+            item.setUpdatedAt(createdAt);
+            if (item.getStatus() == 2) {
+                item.setCompletedAt(createdAt.plusHours(1 + random.nextInt(72)));
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
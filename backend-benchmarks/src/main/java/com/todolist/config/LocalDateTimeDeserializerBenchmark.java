@@ -0,0 +1,109 @@
+package com.todolist.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 请求体中时间字段的解析，每种支持的格式各测一次：TodoTimeModule（LocalDateTimeCodec逐字符解析）
+ * 与依次尝试三个格式器的旧实现对比。旧实现中格式在格式器列表中越靠后，之前失败并抛出异常的尝试越多
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LocalDateTimeDeserializerBenchmark {
+
+    @Param({
+            "2025-09-01 10:30:00",
+            "2025-09-01T10:30:00",
+            "2025-09-01T10:30:00.123Z",
+            "2025-09-01T10:30:00+08:00"
+    })
+    private String value;
+
+    private ObjectReader reader;
+    private ObjectReader legacyReader;
+    private byte[] json;
+
+    @Setup
+    public void setUp() {
+        reader = new ObjectMapper().registerModule(new TodoTimeModule()).readerFor(Holder.class);
+        legacyReader = new ObjectMapper().readerFor(LegacyHolder.class);
+        json = ("{\"value\":\"" + value + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Holder codec() throws Exception {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public LegacyHolder legacy() throws Exception {
+        return legacyReader.readValue(json);
+    }
+
+    public static class Holder {
+        public LocalDateTime value;
+    }
+
+    public static class LegacyHolder {
+        @JsonDeserialize(using = LegacyLocalDateTimeDeserializer.class)
+        public LocalDateTime value;
+    }
+
+    /**
+     * 改为LocalDateTimeCodec之前的实现，作为对比基线
+     */
+    public static class LegacyLocalDateTimeDeserializer extends JsonDeserializer<LocalDateTime> {
+
+        private static final DateTimeFormatter[] FORMATTERS = {
+                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+                DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+                DateTimeFormatter.ISO_DATE_TIME
+        };
+
+        @Override
+        public LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                return LocalDateTime.ofInstant(Instant.ofEpochMilli(p.getLongValue()), ZoneId.systemDefault());
+            }
+
+            String dateString = p.getValueAsString();
+            if (dateString == null || dateString.trim().isEmpty()) {
+                return null;
+            }
+            if (dateString.endsWith("Z")) {
+                dateString = dateString.substring(0, dateString.length() - 1);
+            }
+            for (DateTimeFormatter formatter : FORMATTERS) {
+                try {
+                    return LocalDateTime.parse(dateString, formatter);
+                } catch (DateTimeParseException e) {
+                    // 继续尝试下一个格式
+                }
+            }
+            throw new IOException("无法解析日期时间格式: " + dateString);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.todolist.config;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+
+/**
+ * 待办事项三个时间字段的序列化：TodoTimeModule（LocalDateTimeCodec逐字符写出）与
+ * JavaTimeModule按字段上 @JsonFormat 的格式器输出的旧方式对比
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LocalDateTimeSerializerBenchmark {
+
+    private final ObjectWriter writer = new ObjectMapper().registerModule(new TodoTimeModule()).writerFor(Holder.class);
+    private final ObjectWriter legacyWriter = new ObjectMapper().registerModule(new JavaTimeModule()).writerFor(LegacyHolder.class);
+
+    private final Holder holder = new Holder();
+    private final LegacyHolder legacyHolder = new LegacyHolder();
+
+    public LocalDateTimeSerializerBenchmark() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 9, 1, 10, 30, 0, 123_000_000);
+        holder.completedAt = legacyHolder.completedAt = createdAt.plusHours(26);
+        holder.createdAt = legacyHolder.createdAt = createdAt;
+        holder.updatedAt = legacyHolder.updatedAt = createdAt.plusMinutes(5);
+    }
+
+    @Benchmark
+    public byte[] codec() throws Exception {
+        return writer.writeValueAsBytes(holder);
+    }
+
+    @Benchmark
+    public byte[] legacy() throws Exception {
+        return legacyWriter.writeValueAsBytes(legacyHolder);
+    }
+
+    public static class Holder {
+        public LocalDateTime completedAt;
+        public LocalDateTime createdAt;
+        public LocalDateTime updatedAt;
+    }
+
+    public static class LegacyHolder {
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        public LocalDateTime completedAt;
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        public LocalDateTime createdAt;
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        public LocalDateTime updatedAt;
+    }
+}
@@ -0,0 +1,104 @@
+package com.todolist.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.todolist.BenchmarkContext;
+import com.todolist.dao.TodoItemDao;
+import com.todolist.entity.TodoItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 列表接口的响应序列化：与控制器相同的响应结构（success、data、total），分别使用Spring配置的JSON、Smile、CBOR
+ * ObjectMapper写出rows条待办事项。数据从数据库查询得到，标签JSON在第一次序列化时已解析，测量的是稳定状态下的序列化。
+ * 每种格式的响应字节数在试验结束时输出。
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TodoSerializationBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    private BenchmarkContext context;
+    private ObjectWriter writer;
+    private Map<String, Object> response;
+    private final CountingOutputStream out = new CountingOutputStream();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        context.seed(rows);
+        List<TodoItem> items = context.getBean(TodoItemDao.class).findAll();
+
+        response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", items);
+        response.put("total", items.size());
+
+        ObjectMapper mapper = switch (format) {
+            case "smile" -> context.getBean(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper();
+            case "cbor" -> context.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+            default -> context.getBean(ObjectMapper.class);
+        };
+        writer = mapper.writer();
+        writer.writeValue(out, response);
+        System.out.println();
+        System.out.println(format + ": " + out.count + " bytes for " + items.size() + " items");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public long serialize() throws IOException {
+        out.count = 0;
+        writer.writeValue(out, response);
+        return out.count;
+    }
+
+    /**
+     * 只计数不保存的输出流，不把写入内存缓冲区的开销计入序列化
+     */
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void close() {
+            // 写入后保持可用，供下一次操作复用
+        }
+    }
+}
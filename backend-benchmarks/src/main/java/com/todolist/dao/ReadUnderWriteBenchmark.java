@@ -0,0 +1,109 @@
+package com.todolist.dao;
+
+import com.todolist.BenchmarkContext;
+import com.todolist.entity.TodoItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * WAL模式下读操作是否被写操作阻塞：只读连接池上的分页查询分别在以下情况下运行，对比各组中读操作的吞吐量及各轮之间的波动。
+ * <ul>
+ *   <li>readOnly：没有写入</li>
+ *   <li>readWithWrites：一个线程持续提交单条更新，每次更新是一个独立提交的事务</li>
+ *   <li>readWhileWriteLocked：一个线程在写事务中更新一条记录后等待若干毫秒再提交，写锁几乎一直被占用而几乎不占CPU。
+ *       读操作不被写锁阻塞时，该组的读吞吐量应与readOnly接近</li>
+ * </ul>
+ * 出现SQLITE_BUSY等异常时基准测试直接失败。读线程和写线程共用CPU，CPU核数较少时readWithWrites中
+ * 写线程占用的CPU时间也会体现为读吞吐量的下降，readWhileWriteLocked用于排除这一因素。
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReadUnderWriteBenchmark {
+
+    private static final int SEED_ROWS = 10000;
+    private static final int PAGE_SIZE = 20;
+    private static final long LOCK_HOLD_MILLIS = 10;
+    private static final String[] FILTERS = {"", "status:0", "status:1,2 AND priority>=2", "tag:spark", "tag:值班 AND status:0"};
+
+    private BenchmarkContext context;
+    private TodoItemDao dao;
+    private TransactionTemplate transactionTemplate;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        ids = context.seed(SEED_ROWS);
+        dao = context.getBean(TodoItemDao.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(3)
+    public TodoPage readAlone() {
+        return read();
+    }
+
+    @Benchmark
+    @Group("readWhileWriteLocked")
+    @GroupThreads(3)
+    public TodoPage readLocked() {
+        return read();
+    }
+
+    @Benchmark
+    @Group("readWithWrites")
+    @GroupThreads(3)
+    public TodoPage read() {
+        String filter = FILTERS[ThreadLocalRandom.current().nextInt(FILTERS.length)];
+        return dao.findPage(TodoFilter.parse(filter), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    @Group("readWithWrites")
+    @GroupThreads(1)
+    public TodoItem write() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        TodoItem changes = new TodoItem();
+        changes.setStatus(random.nextInt(4));
+        changes.setPriority(1 + random.nextInt(3));
+        return dao.updateFields(ids.get(random.nextInt(ids.size())), changes, null);
+    }
+
+    @Benchmark
+    @Group("readWhileWriteLocked")
+    @GroupThreads(1)
+    public TodoItem holdWriteLock() {
+        return transactionTemplate.execute(status -> {
+            TodoItem item = write();
+            try {
+                Thread.sleep(LOCK_HOLD_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return item;
+        });
+    }
+}
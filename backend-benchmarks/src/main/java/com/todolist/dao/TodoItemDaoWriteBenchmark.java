@@ -0,0 +1,93 @@
+package com.todolist.dao;
+
+import com.todolist.BenchmarkContext;
+import com.todolist.entity.TodoItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 单条写入：TodoItemDao.save（插入、整行更新）和updateFields（部分更新），每次操作是一个独立提交的事务，
+ * 数据库为临时目录中的SQLite文件（WAL）。包含标签关联、全文索引、变更序号、缓存和分面索引的维护。
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TodoItemDaoWriteBenchmark {
+
+    private static final int SEED_ROWS = 10000;
+
+    private BenchmarkContext context;
+    private TodoItemDao dao;
+    private List<Long> ids;
+    private List<TodoItem> samples;
+    private final Random random = new Random(7);
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        ids = context.seed(SEED_ROWS);
+        dao = context.getBean(TodoItemDao.class);
+        // 使用与已有数据相同的标签，标签已存在于标签表中
+        samples = BenchmarkContext.sampleItems(1000, new Random(42));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public TodoItem insert() {
+        return dao.save(copyOf(nextSample()));
+    }
+
+    @Benchmark
+    public TodoItem update() {
+        TodoItem item = copyOf(nextSample());
+        item.setId(randomId());
+        return dao.save(item);
+    }
+
+    @Benchmark
+    public TodoItem updateFields() {
+        TodoItem changes = new TodoItem();
+        changes.setStatus(random.nextInt(4));
+        changes.setPriority(1 + random.nextInt(3));
+        return dao.updateFields(randomId(), changes, null);
+    }
+
+    private TodoItem nextSample() {
+        next = (next + 1) % samples.size();
+        return samples.get(next);
+    }
+
+    private Long randomId() {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    /**
+     * save会回填ID等字段，每次写入使用新的对象
+     */
+    private static TodoItem copyOf(TodoItem sample) {
+        TodoItem item = new TodoItem(sample.getTitle(), sample.getDescription(), sample.getPriority(), sample.getStatus());
+        item.setTags(sample.getTags());
+        item.setImagePaths(sample.getImagePaths());
+        item.setCompletedAt(sample.getCompletedAt());
+        item.setCreatedAt(sample.getCreatedAt());
+        item.setUpdatedAt(sample.getUpdatedAt());
+        return item;
+    }
+}
@@ -0,0 +1,123 @@
+package com.todolist.dao;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todolist.BenchmarkContext;
+import com.todolist.entity.TodoItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 待办事项查询的行映射：当前按列序号映射、标签和图片路径延迟解析的实现，与按列名查找、每行用ObjectMapper
+ * 立即解析两个JSON字段的旧实现对比。每次操作查询并映射rows行，-prof gc 的 gc.alloc.rate.norm 除以rows即每行分配字节数。
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TodoRowMappingBenchmark {
+
+    private static final String COLUMNS = TodoProjection.ALL.columns(null);
+
+    @Param({"1000"})
+    private int rows;
+
+    private BenchmarkContext context;
+    private JdbcTemplate jdbcTemplate;
+
+    private final RowMapper<TodoItem> indexedMapper = (rs, rowNum) -> TodoProjection.ALL.mapRow(rs);
+    private final RowMapper<TodoItem> legacyMapper = new LegacyRowMapper();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        context.seed(rows);
+        jdbcTemplate = context.getBean("readJdbcTemplate", JdbcTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    /**
+     * 列表接口只请求部分字段或不返回标签时的路径：JSON字段保持原始字符串
+     */
+    @Benchmark
+    public List<TodoItem> indexedLazy() {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM todo_items LIMIT ?", indexedMapper, rows);
+    }
+
+    /**
+     * 序列化时会解析标签和图片路径，与旧实现做的工作量相同
+     */
+    @Benchmark
+    public void indexedDecoded(Blackhole blackhole) {
+        for (TodoItem item : jdbcTemplate.query("SELECT " + COLUMNS + " FROM todo_items LIMIT ?", indexedMapper, rows)) {
+            blackhole.consume(item.getTags());
+            blackhole.consume(item.getImagePaths());
+        }
+    }
+
+    @Benchmark
+    public List<TodoItem> legacyByName() {
+        return jdbcTemplate.query("SELECT * FROM todo_items LIMIT ?", legacyMapper, rows);
+    }
+
+    /**
+     * 改为按列序号映射之前的实现，作为对比基线
+     */
+    private static class LegacyRowMapper implements RowMapper<TodoItem> {
+        private final ObjectMapper objectMapper = new ObjectMapper();
+
+        @Override
+        public TodoItem mapRow(ResultSet rs, int rowNum) throws SQLException {
+            TodoItem item = new TodoItem();
+            item.setId(rs.getLong("id"));
+            item.setTitle(rs.getString("title"));
+            item.setDescription(rs.getString("description"));
+            item.setPriority(rs.getInt("priority"));
+            item.setStatus(rs.getInt("status"));
+            item.setTags(readList(rs.getString("tags")));
+            item.setImagePaths(readList(rs.getString("image_paths")));
+
+            Timestamp completedAt = rs.getTimestamp("completed_at");
+            if (completedAt != null) {
+                item.setCompletedAt(completedAt.toLocalDateTime());
+            }
+            item.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+            item.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+            item.setVersion(rs.getLong("version"));
+            return item;
+        }
+
+        private List<String> readList(String json) {
+            if (json == null || json.isEmpty()) {
+                return new ArrayList<>();
+            }
+            try {
+                return objectMapper.readValue(json, new TypeReference<List<String>>() {});
+            } catch (Exception e) {
+                return new ArrayList<>();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.todolist.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+
+/**
+ * 标签JSON的解析：JsonStringArray与每次新建TypeReference的ObjectMapper.readValue（旧实现）、复用的ObjectReader对比
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JsonStringArrayBenchmark {
+
+    @Param({
+            "[\"迁云项目-阿里云\"]",
+            "[\"迁云项目-阿里云\",\"hbase\",\"监控告警\"]",
+            "[\"带\\\"转义\\\"的标签\",\"c\\\\d\"]"
+    })
+    private String json;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectReader reader = objectMapper.readerForListOf(String.class);
+
+    @Benchmark
+    public List<String> jsonStringArray() {
+        return JsonStringArray.parse(json);
+    }
+
+    @Benchmark
+    public List<String> objectReader() throws Exception {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public List<String> objectMapperTypeReference() throws Exception {
+        return objectMapper.readValue(json, new TypeReference<List<String>>() {});
+    }
+}
@@ -0,0 +1,130 @@
+package com.todolist.util;
+
+import com.todolist.entity.TodoItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 解析Obsidian Tasks格式的任务行：ObsidianTaskParser（正则预编译）与每行重新编译正则的旧实现
+ * （原DataImporter.parseTodoLine，去掉了逐个查询和创建标签）对比。每次操作依次解析下面全部样例行
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ObsidianTaskParserBenchmark {
+
+    private static final String[] LINES = {
+            "- [x] sven-hadoop 上报hunter #迁云项目-阿里云 ⏫ ➕ 2025-08-29 ✅ 2025-08-29",
+            "- [/] 升级mt-spark-submit #迁云项目-阿里云  🔺 ➕ 2025-08-29 📅 2025-09-05 ;; 备注测试",
+            "- [x] 开发orc文件对数工具 #迁云项目-阿里云 🔽 ✅ 2025-09-02",
+            "- [/] 回归测试神州所有sql #迁云项目-阿里云 🛫 2025-08-28 📅 2025-09-06",
+            "- [ ] 成人自考报名 #个人事项 🔺",
+            "- [-] trino无法通过start命令启动问题排查 #oracle云项目  ;; 潘迪重启机器解决 ➕ 2025-09-01 ❌ 2025-09-02",
+            "- [ ] google gid hbase集群运维相关 ➕ 2025-09-01 #oracle云项目",
+            "- [x] 帮栗振杰打包arm版本的python依赖 ➕ 2025-09-01 #业务支撑 ;;obs://mt-bigdata/data/sven-spark/pythonzip/python37-arm-for-lzj8.zip ✅ 2025-09-02",
+            "- [ ] OCI FileSystem sdk封装 #oracle云项目 ⏬ ➕ 2025-09-02",
+            "- [x] 调度服务改造：注册到不同的redis & shell任务执行设置为成功 #迁云项目-阿里云 🔼 ➕ 2025-09-02 ✅ 2025-09-04"
+    };
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (String line : LINES) {
+            blackhole.consume(ObsidianTaskParser.parse(line));
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for (String line : LINES) {
+            blackhole.consume(LegacyParser.parseTodoLine(line));
+        }
+    }
+
+    /**
+     * 改为ObsidianTaskParser之前的解析实现，作为对比基线
+     */
+    private static class LegacyParser {
+
+        static TodoItem parseTodoLine(String line) {
+            if (line == null || line.trim().isEmpty()) {
+                return null;
+            }
+            TodoItem todo = new TodoItem();
+            int status = parseStatus(line);
+            todo.setStatus(status);
+            String title = parseTitle(line);
+            if (title == null || title.trim().isEmpty()) {
+                return null;
+            }
+            todo.setTitle(title.trim());
+            todo.setPriority(parsePriority(line));
+            todo.setTags(parseTags(line));
+            String description = parseDescription(line);
+            if (description != null && !description.trim().isEmpty()) {
+                todo.setDescription(description.trim());
+            }
+            LocalDateTime createdAt = parseDate(line, "➕\\s*(\\d{4}-\\d{2}-\\d{2})", "T09:00:00");
+            todo.setCreatedAt(createdAt != null ? createdAt : LocalDateTime.now());
+            if (status == 2) {
+                LocalDateTime completedAt = parseDate(line, "✅\\s*(\\d{4}-\\d{2}-\\d{2})", "T18:00:00");
+                todo.setCompletedAt(completedAt != null ? completedAt : todo.getCreatedAt());
+            }
+            todo.setUpdatedAt(LocalDateTime.now());
+            return todo;
+        }
+
+        private static int parseStatus(String line) {
+            if (line.contains("- [x]")) return 2;
+            if (line.contains("- [/]")) return 1;
+            if (line.contains("- [ ]")) return 0;
+            if (line.contains("- [-]")) return 3;
+            return 0;
+        }
+
+        private static String parseTitle(String line) {
+            String cleaned = line.replaceFirst("^-\\s*\\[[x/\\s-]\\]\\s*", "");
+            cleaned = cleaned.replaceAll("#[^\\s]+", "");
+            cleaned = cleaned.replaceAll("[⏫🔺🔼🔽⏬➕📅✅❌🛫]", "");
+            cleaned = cleaned.replaceAll("\\d{4}-\\d{2}-\\d{2}", "");
+            cleaned = cleaned.replaceAll(";;.*", "");
+            return cleaned.trim();
+        }
+
+        private static int parsePriority(String line) {
+            if (line.contains("⏫") || line.contains("🔺") || line.contains("🔼")) return 3;
+            if (line.contains("🔽") || line.contains("⏬")) return 1;
+            return 2;
+        }
+
+        private static List<String> parseTags(String line) {
+            List<String> tags = new ArrayList<>();
+            Matcher matcher = Pattern.compile("#([^\\s]+)").matcher(line);
+            while (matcher.find()) {
+                tags.add(matcher.group(1));
+            }
+            return tags;
+        }
+
+        private static String parseDescription(String line) {
+            Matcher matcher = Pattern.compile(";;\\s*(.+)").matcher(line);
+            return matcher.find() ? matcher.group(1).trim() : null;
+        }
+
+        private static LocalDateTime parseDate(String line, String regex, String time) {
+            Matcher matcher = Pattern.compile(regex).matcher(line);
+            return matcher.find() ? LocalDateTime.parse(matcher.group(1) + time) : null;
+        }
+    }
+}
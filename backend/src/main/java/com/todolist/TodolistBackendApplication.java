@@ -2,11 +2,21 @@ package com.todolist;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TodolistBackendApplication {
 
+    // 虚拟线程调度器至少使用的载体线程数：写连接和一个只读连接各固定一个时，仍留出一个给其他请求（见DataSourceConfig）
+    static final int MIN_CARRIERS = 3;
+
     public static void main(String[] args) {
+        // 调度器在创建第一个虚拟线程时读取该设置，须在启动Spring之前设置；未启用虚拟线程时没有影响
+        if (System.getProperty("jdk.virtualThreadScheduler.parallelism") == null
+                && Runtime.getRuntime().availableProcessors() < MIN_CARRIERS) {
+            System.setProperty("jdk.virtualThreadScheduler.parallelism", Integer.toString(MIN_CARRIERS));
+        }
         SpringApplication.run(TodolistBackendApplication.class, args);
     }
 }
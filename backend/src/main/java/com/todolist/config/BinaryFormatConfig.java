@@ -0,0 +1,67 @@
+package com.todolist.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 二进制响应格式：请求头 Accept 为 application/x-jackson-smile 或 application/cbor 时分别以Smile、CBOR编码返回，
+ * 其余情况仍返回JSON。
+ *
+ * 两种格式都基于Spring Boot配置好的ObjectMapper构建（包括字段过滤器等设置），另外：
+ * 重复出现的字符串（如标签名）只编码一次，之后以引用代替；时间编码为毫秒时间戳而不是 "yyyy-MM-dd HH:mm:ss" 字符串。
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return new MappingJackson2SmileHttpMessageConverter(compact(builder.factory(factory).build()));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        // stringref扩展（tag 256），客户端的CBOR解码器需支持该扩展
+        CBORFactory factory = CBORFactory.builder()
+                .enable(CBORGenerator.Feature.STRINGREF)
+                .build();
+        return new MappingJackson2CborHttpMessageConverter(compact(builder.factory(factory).build()));
+    }
+
+    /**
+     * 在已注册的模块之后注册，优先于TodoTimeModule中的字符串格式
+     */
+    private static ObjectMapper compact(ObjectMapper mapper) {
+        SimpleModule module = new SimpleModule("CompactBinaryModule");
+        module.addSerializer(LocalDateTime.class, new EpochMillisSerializer());
+        return mapper.registerModule(module);
+    }
+
+    /**
+     * 按服务器时区把LocalDateTime编码为毫秒时间戳，与数据库中的存储方式一致
+     */
+    private static class EpochMillisSerializer extends JsonSerializer<LocalDateTime> {
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeNumber(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+}
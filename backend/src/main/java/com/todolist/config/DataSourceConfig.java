@@ -0,0 +1,161 @@
+package com.todolist.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.sqlite.SQLiteConfig;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * SQLite数据源配置：WAL模式下读写分离
+ * <ul>
+ *   <li>写连接池只有一个连接，所有写操作在该连接上串行执行，避免并发写入时的 SQLITE_BUSY</li>
+ *   <li>只读连接池包含多个连接，WAL模式下读操作不会被写操作阻塞</li>
+ * </ul>
+ * 默认的 JdbcTemplate 和事务管理器都绑定写连接池，读操作通过 readJdbcTemplate 执行。
+ *
+ * 启用虚拟线程（spring.threads.virtual.enabled，需Java 21）时，SQLite驱动在synchronized方法中调用本地代码，
+ * 持有连接执行SQL的虚拟线程会固定在载体线程上。此时限制只读连接池的大小，使写连接和全部只读连接同时
+ * 执行SQL时仍至少留出一个载体线程给其他请求；等待连接池的虚拟线程不会占用载体线程。
+ * CPU核数少于3时启动类把载体线程数提高到3，否则只有1、2个载体线程时无法留出空闲的载体线程。
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${sqlite.read-pool-size:4}")
+    private int readPoolSize;
+
+    @Value("${sqlite.busy-timeout:5000}")
+    private int busyTimeout;
+
+    // 负数表示以KB为单位的页缓存大小
+    @Value("${sqlite.cache-size:-16000}")
+    private int cacheSize;
+
+    @Value("${sqlite.mmap-size:268435456}")
+    private long mmapSize;
+
+    // 单独存放归档数据的数据库文件，为空时归档表在主数据库中
+    @Value("${archive.database:}")
+    private String archiveDatabase;
+
+    @Autowired
+    private Environment environment;
+
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        createDataDirectory();
+        createArchiveDatabase();
+
+        SQLiteConfig config = baseConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        // 写事务直接获取写锁，避免读锁升级为写锁时失败
+        config.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+
+        HikariDataSource dataSource = createPool("sqlite-writer", config);
+        dataSource.setMaximumPoolSize(1);
+        return dataSource;
+    }
+
+    @Bean
+    public DataSource readDataSource() {
+        SQLiteConfig config = baseConfig();
+        config.setReadOnly(true);
+
+        HikariDataSource dataSource = createPool("sqlite-reader", config);
+        // 与SQLiteConfig保持一致，否则驱动会拒绝连接池设置只读标记
+        dataSource.setReadOnly(true);
+        dataSource.setMaximumPoolSize(effectiveReadPoolSize());
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Bean
+    public JdbcTemplate readJdbcTemplate(@Qualifier("readDataSource") DataSource readDataSource) {
+        return new JdbcTemplate(readDataSource);
+    }
+
+    private int effectiveReadPoolSize() {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            return readPoolSize;
+        }
+        // 虚拟线程调度器的载体线程数，默认等于CPU核数；扣除写连接和一个空闲载体线程
+        int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                Runtime.getRuntime().availableProcessors());
+        if (carriers < 3) {
+            // 手动设置了更小的载体线程数，执行SQL时可能占满全部载体线程
+            System.err.println("虚拟线程模式下载体线程数为 " + carriers + "，建议 jdk.virtualThreadScheduler.parallelism 不小于3");
+        }
+        int size = Math.max(1, Math.min(readPoolSize, carriers - 2));
+        if (size < readPoolSize) {
+            System.out.println("虚拟线程模式下只读连接池大小限制为: " + size);
+        }
+        return size;
+    }
+
+    private SQLiteConfig baseConfig() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        config.setBusyTimeout(busyTimeout);
+        config.setCacheSize(cacheSize);
+        config.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapSize));
+        return config;
+    }
+
+    private HikariDataSource createPool(String poolName, SQLiteConfig config) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(poolName);
+        dataSource.setJdbcUrl(url);
+        dataSource.setDriverClassName("org.sqlite.JDBC");
+        dataSource.setDataSourceProperties(config.toProperties());
+        if (!archiveDatabase.isEmpty()) {
+            // 每个连接都附加归档数据库，查询时可与todo_items联合查询
+            dataSource.setConnectionInitSql("ATTACH DATABASE '" + archiveDatabase.replace("'", "''") + "' AS archive");
+        }
+        return dataSource;
+    }
+
+    private void createArchiveDatabase() {
+        // 只读连接无法创建数据库文件，预先创建空文件（SQLite将空文件视为空数据库）
+        if (archiveDatabase.isEmpty()) {
+            return;
+        }
+        File file = new File(archiveDatabase).getAbsoluteFile();
+        try {
+            file.getParentFile().mkdirs();
+            file.createNewFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法创建归档数据库文件: " + file, e);
+        }
+    }
+
+    private void createDataDirectory() {
+        // 连接池启动前确保数据库文件所在目录存在
+        String path = url.substring("jdbc:sqlite:".length());
+        File parent = new File(path).getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+    }
+}
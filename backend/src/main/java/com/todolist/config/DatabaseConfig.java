@@ -1,5 +1,7 @@
 package com.todolist.config;
 
+import com.todolist.dao.TodoItemDao;
+import com.todolist.service.TagService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.io.ClassPathResource;
@@ -13,9 +15,18 @@ import java.nio.charset.StandardCharsets;
 @Component
 public class DatabaseConfig implements CommandLineRunner {
 
+    // 数据库结构版本，记录在 PRAGMA user_version 中，用于执行一次性的数据迁移
+    private static final int SCHEMA_VERSION = 3;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private TodoItemDao todoItemDao;
+
+    @Autowired
+    private TagService tagService;
+
     @Override
     public void run(String... args) throws Exception {
         // 创建数据目录
@@ -32,6 +43,65 @@ public class DatabaseConfig implements CommandLineRunner {
 
         // 执行数据库初始化脚本
         executeSqlScript();
+
+        // 为已有的表补充新增的列
+        addColumnIfMissing("todo_items", "version", "INTEGER NOT NULL DEFAULT 0");
+        addColumnIfMissing("todo_items", "change_seq", "INTEGER NOT NULL DEFAULT 0");
+        // 依赖新增的列，不能放在schema.sql中
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_todo_items_change_seq ON todo_items (change_seq)");
+        // 归档表可能位于单独附加的数据库中，表名取决于配置
+        todoItemDao.createArchiveTable();
+
+        // 执行数据迁移
+        migrateData();
+
+        // 迁移可能直接写入了标签表，重新加载标签快照
+        tagService.reloadTags();
+
+        // 从数据库全量构建分面索引，之后由写操作增量维护
+        todoItemDao.rebuildFacetIndex();
+    }
+
+    private void addColumnIfMissing(String table, String column, String definition) {
+        try {
+            Integer count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pragma_table_info(?) WHERE name = ?", Integer.class, table, column);
+            if (count != null && count == 0) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+                System.out.println("已添加列: " + table + "." + column);
+            }
+        } catch (Exception e) {
+            System.err.println("添加列失败: " + table + "." + column + " - " + e.getMessage());
+        }
+    }
+
+    private void migrateData() {
+        try {
+            Integer version = jdbcTemplate.queryForObject("PRAGMA user_version", Integer.class);
+            int currentVersion = version != null ? version : 0;
+
+            if (currentVersion < 1) {
+                // 从JSON格式的tags字段回填todo_tags关联表
+                todoItemDao.backfillTodoTags();
+            }
+
+            if (currentVersion < 2) {
+                // 为已有数据建立全文索引
+                todoItemDao.rebuildSearchIndex();
+            }
+
+            if (currentVersion < 3) {
+                // 为已有数据分配变更序号
+                todoItemDao.initChangeSequence();
+            }
+
+            if (currentVersion < SCHEMA_VERSION) {
+                jdbcTemplate.execute("PRAGMA user_version = " + SCHEMA_VERSION);
+                System.out.println("数据迁移完成，当前版本: " + SCHEMA_VERSION);
+            }
+        } catch (Exception e) {
+            System.err.println("数据迁移失败: " + e.getMessage());
+        }
     }
 
     private void executeSqlScript() {
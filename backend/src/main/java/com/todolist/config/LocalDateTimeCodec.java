@@ -0,0 +1,161 @@
+package com.todolist.config;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * LocalDateTime与文本之间的转换，不经过DateTimeFormatter：按字符位置一次扫描完成解析和写出，
+ * 输入不符合任何支持的格式时返回null，不抛出异常。
+ *
+ * 支持解析的格式与原来依次尝试的三个格式器相同：
+ * yyyy-MM-dd HH:mm:ss
+ * yyyy-MM-ddTHH:mm[:ss[.fffffffff]]，其后可带时区偏移（如 +08:00、+08:00[Asia/Shanghai]），偏移只校验不换算，取字面时间
+ * 末尾的Z与原实现一样直接忽略。写出格式固定为 yyyy-MM-dd HH:mm:ss。
+ */
+public final class LocalDateTimeCodec {
+
+    // 写出格式 yyyy-MM-dd HH:mm:ss 的长度
+    public static final int FORMATTED_LENGTH = 19;
+
+    private LocalDateTimeCodec() {}
+
+    /**
+     * 解析buf中从offset开始的length个字符，不符合支持的格式或日期无效时返回null
+     */
+    public static LocalDateTime parse(char[] buf, int offset, int length) {
+        int end = offset + length;
+        if (length > 0 && buf[end - 1] == 'Z') {
+            end--;
+        }
+        if (end - offset < 16) {
+            return null;
+        }
+
+        int year = digits(buf, offset, 4);
+        int month = digits(buf, offset + 5, 2);
+        int day = digits(buf, offset + 8, 2);
+        if (year < 0 || buf[offset + 4] != '-' || buf[offset + 7] != '-'
+                || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+            return null;
+        }
+
+        char separator = buf[offset + 10];
+        if (separator != ' ' && separator != 'T') {
+            return null;
+        }
+        int hour = digits(buf, offset + 11, 2);
+        int minute = digits(buf, offset + 14, 2);
+        if (hour < 0 || hour > 23 || buf[offset + 13] != ':' || minute < 0 || minute > 59) {
+            return null;
+        }
+
+        int pos = offset + 16;
+        int second = 0;
+        int nano = 0;
+        if (pos < end && buf[pos] == ':') {
+            second = pos + 3 <= end ? digits(buf, pos + 1, 2) : -1;
+            if (second < 0 || second > 59) {
+                return null;
+            }
+            pos += 3;
+
+            // 秒的小数部分只在ISO格式中出现，0到9位
+            if (separator == 'T' && pos < end && buf[pos] == '.') {
+                int start = ++pos;
+                while (pos < end && pos - start < 9 && isDigit(buf[pos])) {
+                    nano = nano * 10 + (buf[pos++] - '0');
+                }
+                for (int i = pos - start; i < 9; i++) {
+                    nano *= 10;
+                }
+            }
+        } else if (separator == ' ') {
+            // 空格分隔的格式必须带秒
+            return null;
+        }
+
+        if (pos < end && (separator != 'T' || !isOffset(buf, pos, end))) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+    }
+
+    /**
+     * 以 yyyy-MM-dd HH:mm:ss 格式写入buf的前19个字符，秒以下的部分舍去。
+     * 年份不在1到9999之间时不写入并返回false，由调用方改用DateTimeFormatter
+     */
+    public static boolean format(LocalDateTime value, char[] buf) {
+        int year = value.getYear();
+        if (year < 1 || year > 9999) {
+            return false;
+        }
+        buf[0] = (char) ('0' + year / 1000);
+        buf[1] = (char) ('0' + year / 100 % 10);
+        buf[2] = (char) ('0' + year / 10 % 10);
+        buf[3] = (char) ('0' + year % 10);
+        buf[4] = '-';
+        twoDigits(buf, 5, value.getMonthValue());
+        buf[7] = '-';
+        twoDigits(buf, 8, value.getDayOfMonth());
+        buf[10] = ' ';
+        twoDigits(buf, 11, value.getHour());
+        buf[13] = ':';
+        twoDigits(buf, 14, value.getMinute());
+        buf[16] = ':';
+        twoDigits(buf, 17, value.getSecond());
+        return true;
+    }
+
+    /**
+     * 时区偏移 Z、±HH:MM 或 ±HH:MM:ss（不超过18小时），其后可带方括号中的时区名，须到达结尾
+     */
+    private static boolean isOffset(char[] buf, int pos, int end) {
+        if (buf[pos] == 'Z') {
+            return isZoneName(buf, pos + 1, end);
+        }
+        if (end - pos < 6 || (buf[pos] != '+' && buf[pos] != '-') || buf[pos + 3] != ':') {
+            return false;
+        }
+        int hours = digits(buf, pos + 1, 2);
+        int minutes = digits(buf, pos + 4, 2);
+        int seconds = 0;
+        pos += 6;
+        if (pos < end && buf[pos] == ':') {
+            seconds = pos + 3 <= end ? digits(buf, pos + 1, 2) : -1;
+            pos += 3;
+        }
+        if (hours < 0 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59
+                || hours * 3600 + minutes * 60 + seconds > 18 * 3600) {
+            return false;
+        }
+        return isZoneName(buf, pos, end);
+    }
+
+    private static boolean isZoneName(char[] buf, int pos, int end) {
+        return pos == end || (buf[pos] == '[' && end - pos > 2 && buf[end - 1] == ']');
+    }
+
+    /**
+     * 读取count位十进制数字，含非数字字符时返回-1
+     */
+    private static int digits(char[] buf, int pos, int count) {
+        int value = 0;
+        for (int i = pos; i < pos + count; i++) {
+            if (!isDigit(buf[i])) {
+                return -1;
+            }
+            value = value * 10 + (buf[i] - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static void twoDigits(char[] buf, int pos, int value) {
+        buf[pos] = (char) ('0' + value / 10);
+        buf[pos + 1] = (char) ('0' + value % 10);
+    }
+}
@@ -1,44 +1,45 @@
 package com.todolist.config;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.time.ZoneId;
 
+/**
+ * 请求体中的时间字段，支持的格式见LocalDateTimeCodec。直接解析解析器缓冲区中的字符，不创建中间字符串
+ */
 public class LocalDateTimeDeserializer extends JsonDeserializer<LocalDateTime> {
-    
-    private static final DateTimeFormatter[] FORMATTERS = {
-        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-        DateTimeFormatter.ISO_LOCAL_DATE_TIME,
-        DateTimeFormatter.ISO_DATE_TIME
-    };
 
     @Override
     public LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-        String dateString = p.getValueAsString();
-        
-        if (dateString == null || dateString.trim().isEmpty()) {
-            return null;
-        }
-        
-        // 处理ISO格式中的Z后缀
-        if (dateString.endsWith("Z")) {
-            dateString = dateString.substring(0, dateString.length() - 1);
+        // 二进制格式（Smile、CBOR）中的时间为毫秒时间戳
+        if (p.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(p.getLongValue()), ZoneId.systemDefault());
         }
-        
-        // 尝试不同的格式
-        for (DateTimeFormatter formatter : FORMATTERS) {
-            try {
-                return LocalDateTime.parse(dateString, formatter);
-            } catch (DateTimeParseException e) {
-                // 继续尝试下一个格式
+
+        LocalDateTime value;
+        if (p.currentToken() == JsonToken.VALUE_STRING) {
+            value = LocalDateTimeCodec.parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        } else {
+            String text = p.getValueAsString();
+            if (text == null) {
+                return null;
             }
+            value = LocalDateTimeCodec.parse(text.toCharArray(), 0, text.length());
+        }
+        if (value != null) {
+            return value;
+        }
+
+        String dateString = p.getText();
+        if (dateString.trim().isEmpty()) {
+            return null;
         }
-        
         throw new IOException("无法解析日期时间格式: " + dateString);
     }
 }
@@ -0,0 +1,31 @@
+package com.todolist.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 以 yyyy-MM-dd HH:mm:ss 格式写出时间，由LocalDateTimeCodec逐字符生成，不经过DateTimeFormatter
+ */
+public class LocalDateTimeSerializer extends JsonSerializer<LocalDateTime> {
+
+    // 年份超出四位数时使用
+    private static final DateTimeFormatter FALLBACK_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // 每个线程复用一个缓冲区：writeString在返回前已把字符复制到生成器自己的缓冲区中
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[LocalDateTimeCodec.FORMATTED_LENGTH]);
+
+    @Override
+    public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        char[] buf = BUFFER.get();
+        if (LocalDateTimeCodec.format(value, buf)) {
+            gen.writeString(buf, 0, buf.length);
+        } else {
+            gen.writeString(FALLBACK_FORMATTER.format(value));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.todolist.config;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 待办事项、标签等实体中LocalDateTime字段的读写格式。
+ * Spring Boot 会把容器中的Module注册到它配置的ObjectMapper上（在JavaTimeModule之后，因此优先），
+ * Smile、CBOR的ObjectMapper也基于同一配置，再由BinaryFormatConfig改为毫秒时间戳输出。
+ */
+@Component
+public class TodoTimeModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    public TodoTimeModule() {
+        super("TodoTimeModule");
+        addSerializer(LocalDateTime.class, new LocalDateTimeSerializer());
+        addDeserializer(LocalDateTime.class, new LocalDateTimeDeserializer());
+    }
+}
@@ -1,11 +1,16 @@
 package com.todolist.controller;
 
+import com.todolist.entity.MarkdownImportReport;
+import com.todolist.service.MarkdownImportException;
+import com.todolist.service.MarkdownImportService;
 import com.todolist.util.DataImporter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,6 +21,9 @@ public class DataImportController {
     @Autowired
     private DataImporter dataImporter;
 
+    @Autowired
+    private MarkdownImportService markdownImportService;
+
     @PostMapping("/todos")
     public ResponseEntity<Map<String, Object>> importTodos() {
         try {
@@ -34,4 +42,45 @@ public class DataImportController {
             return ResponseEntity.status(500).body(response);
         }
     }
+
+    /**
+     * 从上传的Markdown文件（可多个）或笔记库zip压缩包导入Obsidian Tasks格式的任务，返回导入统计和无效行明细
+     */
+    @PostMapping("/markdown")
+    public ResponseEntity<Map<String, Object>> importMarkdown(@RequestParam("files") List<MultipartFile> files) {
+        try {
+            MarkdownImportReport report = markdownImportService.importFiles(files);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", report);
+            response.put("message", "导入完成：成功 " + report.getImported() + " 条，无效 " + report.getErrorCount() + " 行");
+
+            return ResponseEntity.ok(response);
+        } catch (MarkdownImportException e) {
+            // 中途失败，返回已完成部分的报告，重新导入时从failedFile、failedLine处开始
+            MarkdownImportReport report = e.getReport();
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("data", report);
+            response.put("message", "导入中断：已成功 " + report.getImported() + " 条，" +
+                    (report.getFailedFile() != null ? "从 " + report.getFailedFile() +
+                            (report.getFailedLine() > 0 ? " 第 " + report.getFailedLine() + " 行" : "") + " 起未导入，" : "") +
+                    "原因: " + e.getMessage());
+
+            return ResponseEntity.status(e.getCause() instanceof IllegalArgumentException ? 400 : 500).body(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+
+            return ResponseEntity.status(400).body(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "数据导入失败: " + e.getMessage());
+
+            return ResponseEntity.status(500).body(response);
+        }
+    }
 }
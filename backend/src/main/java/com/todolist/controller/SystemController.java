@@ -0,0 +1,101 @@
+package com.todolist.controller;
+
+import com.todolist.dao.TodoFacetIndex;
+import com.todolist.dao.TodoItemCache;
+import com.todolist.service.TodoArchiver;
+import com.todolist.service.TodoItemService;
+import com.todolist.service.TodoWritePipeline;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/system")
+@CrossOrigin(origins = "http://localhost:3000")
+public class SystemController {
+
+    @Autowired
+    private TodoItemCache todoItemCache;
+
+    @Autowired
+    private TodoArchiver todoArchiver;
+
+    @Autowired
+    private TodoWritePipeline writePipeline;
+
+    @Autowired
+    private TodoFacetIndex facetIndex;
+
+    @Autowired
+    private TodoItemService todoItemService;
+
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", todoItemCache.getStats());
+        
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/write-pipeline")
+    public ResponseEntity<Map<String, Object>> getWritePipelineStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", writePipeline.getStats());
+        
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/facet-index")
+    public ResponseEntity<Map<String, Object>> getFacetIndexStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", facetIndex.getStats());
+        
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 检查分面索引（/api/todos/facets）与数据库统计（/api/todos/stats）是否一致
+     */
+    @GetMapping("/facet-index/verify")
+    public ResponseEntity<Map<String, Object>> verifyFacetIndex() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", todoItemService.verifyFacetIndex());
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "检查分面索引失败: " + e.getMessage());
+            
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
+    /**
+     * 立即归档已完成或已取消超过 archive.after-days 天的待办事项
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<Map<String, Object>> archiveTodoItems() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", Map.of("archived", todoArchiver.archive()));
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "归档失败: " + e.getMessage());
+            
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.todolist.controller;
 
+import com.todolist.dao.TableVersions;
 import com.todolist.entity.Tag;
 import com.todolist.service.TagService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -18,9 +23,22 @@ public class TagController {
     @Autowired
     private TagService tagService;
 
+    @Autowired
+    private TableVersions tableVersions;
+
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllTags() {
+    public ResponseEntity<Map<String, Object>> getAllTags(WebRequest webRequest) {
         try {
+            // ETag取自标签表的写入计数，数据未变化时直接返回304
+            String eTag = tableVersions.tagsETag();
+            if (webRequest.checkNotModified(eTag)) {
+                // checkNotModified已设置ETag响应头；304同样带上Vary，缓存按Accept区分JSON、Smile和CBOR响应
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .cacheControl(CacheControl.noCache())
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .build();
+            }
+            
             List<Tag> tags = tagService.getAllTags();
             
             Map<String, Object> response = new HashMap<>();
@@ -28,7 +46,11 @@ public class TagController {
             response.put("data", tags);
             response.put("total", tags.size());
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -1,12 +1,40 @@
 package com.todolist.controller;
 
+import com.todolist.dao.TodoCursor;
+import com.todolist.dao.TodoFilter;
+import com.todolist.dao.TodoPage;
+import com.todolist.dao.TableVersions;
+import com.todolist.dao.TodoChanges;
+import com.todolist.dao.TodoProjection;
+import com.todolist.entity.TodoBulkRequest;
 import com.todolist.entity.TodoItem;
+import com.todolist.entity.TodoSearchHit;
+import com.todolist.entity.TodoStats;
+import com.todolist.service.TodoEventPublisher;
 import com.todolist.service.TodoItemService;
+import com.todolist.service.VersionConflictException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -17,38 +45,127 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:3000")
 public class TodoItemController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int DEFAULT_CHANGES_SIZE = 1000;
+    private static final int MAX_CHANGES_SIZE = 5000;
+
     @Autowired
     private TodoItemService todoItemService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Autowired
+    private TodoEventPublisher eventPublisher;
+
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllTodoItems(
+    public ResponseEntity<?> getAllTodoItems(
+            @RequestParam(required = false) String q,
             @RequestParam(required = false) Integer status,
             @RequestParam(required = false) Integer priority,
             @RequestParam(required = false) String tag,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            WebRequest webRequest) {
+        TodoFilter.Scope scope = includeArchived ? TodoFilter.Scope.ALL : TodoFilter.Scope.ACTIVE;
+        return listTodoItems(q, status, priority, tag, startDate, endDate, limit, cursor, fields, scope, webRequest);
+    }
+
+    /**
+     * 查询已归档的待办事项，参数与列表查询相同
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<?> getArchivedTodoItems(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer status,
+            @RequestParam(required = false) Integer priority,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        return listTodoItems(q, status, priority, tag, startDate, endDate, limit, cursor, fields, TodoFilter.Scope.ARCHIVED, webRequest);
+    }
+
+    @GetMapping("/archive/{id}")
+    public ResponseEntity<Map<String, Object>> getArchivedTodoItemById(@PathVariable Long id) {
         try {
-            List<TodoItem> items;
-            
-            if (status != null) {
-                items = todoItemService.getTodoItemsByStatus(status);
-            } else if (priority != null) {
-                items = todoItemService.getTodoItemsByPriority(priority);
-            } else if (tag != null && !tag.trim().isEmpty()) {
-                items = todoItemService.getTodoItemsByTag(tag);
-            } else if (startDate != null && endDate != null) {
-                items = todoItemService.getTodoItemsByDateRange(startDate, endDate);
+            TodoItem item = todoItemService.getArchivedTodoItem(id);
+            
+            Map<String, Object> response = new HashMap<>();
+            if (item != null) {
+                response.put("success", true);
+                response.put("data", item);
+                return ResponseEntity.ok(response);
             } else {
-                items = todoItemService.getAllTodoItems();
+                response.put("success", false);
+                response.put("message", "已归档的待办事项不存在");
+                return ResponseEntity.status(404).body(response);
+            }
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "获取待办事项失败: " + e.getMessage());
+            
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
+    private ResponseEntity<?> listTodoItems(String q, Integer status, Integer priority, String tag,
+                                            LocalDateTime startDate, LocalDateTime endDate,
+                                            Integer limit, String cursor, String fields,
+                                            TodoFilter.Scope scope, WebRequest webRequest) {
+        try {
+            // ETag取自待办事项表的写入计数，在查询之前获取；数据未变化时直接返回304，不查询也不序列化
+            String eTag = tableVersions.todosETag();
+            if (webRequest.checkNotModified(eTag)) {
+                // checkNotModified已设置ETag响应头
+                return notModified();
             }
             
+            // 只查询和返回fields中列出的字段
+            TodoProjection projection = TodoProjection.parse(fields);
+            TodoFilter filter = buildFilter(q, status, priority, tag, startDate, endDate).scope(scope);
+            
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("data", items);
-            response.put("total", items.size());
             
-            return ResponseEntity.ok(response);
+            if (limit != null || cursor != null) {
+                // 游标分页，nextCursor为空表示已到最后一页
+                int pageSize = limit != null ? Math.max(1, Math.min(limit, MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+                TodoCursor after = cursor != null && !cursor.isEmpty() ? TodoCursor.decode(cursor) : null;
+                TodoPage page = todoItemService.getTodoItemPage(filter, after, pageSize, projection);
+                response.put("data", page.getItems());
+                response.put("total", page.getItems().size());
+                response.put("nextCursor", page.getNextCursor());
+            } else {
+                List<TodoItem> items = todoItemService.getTodoItems(filter, projection);
+                response.put("data", items);
+                response.put("total", items.size());
+            }
+            
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(selectFields(response, projection));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(400).body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -58,21 +175,198 @@ public class TodoItemController {
         }
     }
 
+    /**
+     * 以NDJSON流式返回筛选结果（Accept: application/x-ndjson 或 stream=true），参数与列表查询相同，不分页
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTodoItems(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer status,
+            @RequestParam(required = false) Integer priority,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        // 筛选条件错误时抛出IllegalArgumentException，由handleIllegalArgument返回400
+        TodoProjection projection = TodoProjection.parse(fields);
+        TodoFilter filter = buildFilter(q, status, priority, tag, startDate, endDate)
+                .scope(includeArchived ? TodoFilter.Scope.ALL : TodoFilter.Scope.ACTIVE);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(writeNdjson(filter, projection));
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamTodoItemsByParam(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer status,
+            @RequestParam(required = false) Integer priority,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return streamTodoItems(q, status, priority, tag, startDate, endDate, fields, includeArchived);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> searchTodoItems(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") Integer limit,
+            @RequestParam(defaultValue = "0") Integer offset) {
+        try {
+            int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_PAGE_SIZE));
+            List<TodoSearchHit> hits = todoItemService.searchTodoItems(q, pageSize, Math.max(0, offset));
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", hits);
+            response.put("total", todoItemService.countSearchResults(q));
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "搜索待办事项失败: " + e.getMessage());
+            
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
+    /**
+     * 增量同步：返回since之后新增或修改的待办事项和已删除的ID，客户端保存nextToken用于下一次同步
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<Map<String, Object>> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            int pageSize = limit != null ? Math.max(1, Math.min(limit, MAX_CHANGES_SIZE)) : DEFAULT_CHANGES_SIZE;
+            TodoChanges changes = todoItemService.getChanges(since, pageSize);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", changes.getItems());
+            response.put("deleted", changes.getDeletedIds());
+            response.put("total", changes.getItems().size());
+            response.put("nextToken", changes.getNextToken());
+            response.put("hasMore", changes.isHasMore());
+            response.put("reset", changes.isReset());
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(400).body(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "获取变更失败: " + e.getMessage());
+            
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
+    /**
+     * 以Server-Sent Events推送待办事项和标签的变更，断线重连时浏览器会自动携带Last-Event-ID
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return eventPublisher.subscribe(lastEventId);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getTodoStats() {
+        try {
+            TodoStats stats = todoItemService.getTodoStats();
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", stats);
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "获取统计数据失败: " + e.getMessage());
+            
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
+    /**
+     * 分面计数：筛选结果按状态、优先级、标签的数量，由内存中的位图索引计算，不查询数据库
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> getTodoFacets(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer status,
+            @RequestParam(required = false) Integer priority,
+            @RequestParam(required = false) String tag) {
+        try {
+            TodoFilter filter = buildFilter(q, status, priority, tag, null, null);
+            TodoStats facets = todoItemService.getTodoFacets(filter);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", facets);
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(400).body(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "获取分面统计失败: " + e.getMessage());
+            
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getTodoItemById(@PathVariable Long id) {
+    public ResponseEntity<?> getTodoItemById(@PathVariable Long id,
+                                             @RequestParam(required = false) String fields,
+                                             WebRequest webRequest) {
         try {
-            TodoItem item = todoItemService.getTodoItemById(id);
+            // ETag为记录的版本号，与PUT/PATCH的If-Match一致；条件请求只查询版本号
+            if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+                Long version = todoItemService.getTodoItemVersion(id);
+                if (version != null && webRequest.checkNotModified(versionETag(version))) {
+                    return notModified();
+                }
+            }
+            
+            TodoProjection projection = TodoProjection.parse(fields);
+            // 生成ETag需要version
+            TodoItem item = todoItemService.getTodoItemById(id, projection.with(TodoProjection.Field.VERSION));
             
             Map<String, Object> response = new HashMap<>();
             if (item != null) {
                 response.put("success", true);
                 response.put("data", item);
-                return ResponseEntity.ok(response);
+                return ResponseEntity.ok()
+                        .eTag(versionETag(item.getVersion()))
+                        .cacheControl(CacheControl.noCache())
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .body(selectFields(response, projection));
             } else {
                 response.put("success", false);
                 response.put("message", "待办事项不存在");
                 return ResponseEntity.status(404).body(response);
             }
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(400).body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -102,17 +396,80 @@ public class TodoItemController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> createTodoItems(@RequestBody List<TodoItem> items) {
+        try {
+            List<TodoItem> createdItems = todoItemService.createTodoItems(items);
+            List<Long> ids = createdItems.stream()
+                    .map(TodoItem::getId)
+                    .toList();
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", ids);
+            response.put("total", ids.size());
+            response.put("message", "待办事项批量创建成功");
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(400).body(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "批量创建待办事项失败: " + e.getMessage());
+            
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> updateTodoItem(@PathVariable Long id, @RequestBody TodoItem item) {
+    public ResponseEntity<Map<String, Object>> updateTodoItem(@PathVariable Long id, @RequestBody TodoItem item,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return patchTodoItem(id, item, ifMatch);
+    }
+
+    /**
+     * 部分更新，只写入请求体中的非空字段。携带If-Match时进行版本校验，版本不一致返回409
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> patchTodoItem(@PathVariable Long id, @RequestBody TodoItem item,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            TodoItem updatedItem = todoItemService.updateTodoItem(id, item);
+            TodoItem updatedItem = todoItemService.patchTodoItem(id, item, parseVersion(ifMatch));
             
             Map<String, Object> response = new HashMap<>();
+            if (updatedItem == null) {
+                response.put("success", false);
+                response.put("message", "待办事项不存在");
+                return ResponseEntity.status(404).body(response);
+            }
+            
             response.put("success", true);
             response.put("data", updatedItem);
             response.put("message", "待办事项更新成功");
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(versionETag(updatedItem.getVersion()))
+                    .body(response);
+        } catch (VersionConflictException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            response.put("currentVersion", e.getCurrentVersion());
+            
+            return ResponseEntity.status(409)
+                    .eTag(versionETag(e.getCurrentVersion()))
+                    .body(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(400).body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -141,6 +498,35 @@ public class TodoItemController {
         }
     }
 
+    /**
+     * 批量修改状态、优先级、标签或批量删除，请求体见TodoBulkRequest
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<Map<String, Object>> bulkUpdateTodoItems(@RequestBody TodoBulkRequest request) {
+        try {
+            int affected = todoItemService.bulkUpdate(request);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", Map.of("affected", affected));
+            response.put("message", "批量操作完成，共 " + affected + " 条");
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(400).body(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "批量操作失败: " + e.getMessage());
+            
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
     @PatchMapping("/{id}/status")
     public ResponseEntity<Map<String, Object>> updateTodoItemStatus(@PathVariable Long id, @RequestBody Map<String, Integer> statusUpdate) {
         try {
@@ -160,6 +546,12 @@ public class TodoItemController {
             response.put("message", "状态更新成功");
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(400).body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -168,4 +560,123 @@ public class TodoItemController {
             return ResponseEntity.status(500).body(response);
         }
     }
+
+    /**
+     * 304响应同样带上缓存控制和Vary头，缓存按Accept区分同一URL的JSON、Smile和CBOR响应
+     */
+    private static ResponseEntity<Map<String, Object>> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    /**
+     * 详情接口的ETag为版本号；同一版本的JSON、Smile、CBOR响应字节不同，使用弱ETag
+     */
+    private static String versionETag(Long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    /**
+     * 解析If-Match中的版本号，支持 "3"、W/"3" 和 3 的写法；为空或 * 时不校验版本
+     */
+    private Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "");
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的If-Match版本号: " + ifMatch);
+        }
+    }
+
+    /**
+     * 未在方法内捕获的参数错误（如流式查询的筛选表达式错误），以JSON格式返回400
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", e.getMessage());
+        
+        return ResponseEntity.status(400).contentType(MediaType.APPLICATION_JSON).body(response);
+    }
+
+    /**
+     * 筛选表达式与单项参数以AND组合，编译为一条SQL查询
+     */
+    private TodoFilter buildFilter(String q, Integer status, Integer priority, String tag,
+                                   LocalDateTime startDate, LocalDateTime endDate) {
+        TodoFilter filter = TodoFilter.parse(q);
+        if (status != null) {
+            filter.statusIn(List.of(status));
+        }
+        if (priority != null) {
+            filter.priority("=", priority);
+        }
+        if (tag != null && !tag.trim().isEmpty()) {
+            filter.tagIn(List.of(tag.trim()));
+        }
+        if (startDate != null && endDate != null) {
+            filter.createdBetween(startDate, endDate);
+        }
+        return filter;
+    }
+
+    /**
+     * NDJSON流式输出：每行一条待办事项，边查询边写入响应，内存占用与结果数量无关。
+     * 查询期间占用一个只读连接，客户端断开时写入失败并中止查询
+     */
+    private StreamingResponseBody writeNdjson(TodoFilter filter, TodoProjection projection) {
+        ObjectWriter writer = objectMapper.writer(fieldsFilter(projection))
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                // 行之间只用换行分隔，不使用默认的空格分隔符
+                generator.setRootValueSeparator(null);
+                boolean[] first = {true};
+                todoItemService.streamTodoItems(filter, projection, item -> {
+                    try {
+                        writer.writeValue(generator, item);
+                        generator.writeRaw('\n');
+                        // 其余数据由缓冲区写满时发送，第一条立即发送以尽快返回首字节
+                        if (first[0]) {
+                            generator.flush();
+                            first[0] = false;
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * 只请求了部分字段时，序列化TodoItem时过滤掉其余字段
+     */
+    private Object selectFields(Map<String, Object> response, TodoProjection projection) {
+        if (projection.isAll()) {
+            return response;
+        }
+        MappingJacksonValue value = new MappingJacksonValue(response);
+        value.setFilters(fieldsFilter(projection));
+        return value;
+    }
+
+    private FilterProvider fieldsFilter(TodoProjection projection) {
+        SimpleFilterProvider filters = new SimpleFilterProvider();
+        if (projection.isAll()) {
+            return filters.setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+        }
+        return filters.addFilter(TodoItem.FIELDS_FILTER,
+                SimpleBeanPropertyFilter.filterOutAllExcept(projection.getPropertyNames()));
+    }
 }
@@ -0,0 +1,143 @@
+package com.todolist.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 全文检索分词工具。
+ *
+ * SQLite FTS5 自带的 unicode61 分词器会把连续的中文当作一个词，trigram 分词器又无法匹配两个字的词（如“迁云”、“排查”），
+ * 因此写入索引前先把中日韩文字切分为重叠的二元组（“迁云项目” -> “迁云 云项 项目 目”），
+ * 查询时按同样的规则把关键词转换为相邻二元组组成的短语，其余文字交给 unicode61 正常分词。
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * 将原始文本转换为写入FTS索引的文本
+     */
+    public static String toIndexText(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length() * 3);
+        int i = 0;
+        while (i < text.length()) {
+            int cp = text.codePointAt(i);
+            if (isCjk(cp)) {
+                int end = cjkRunEnd(text, i);
+                appendBigrams(sb, text.substring(i, end));
+                i = end;
+            } else {
+                sb.appendCodePoint(cp);
+                i += Character.charCount(cp);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 将用户输入的关键词转换为FTS5 MATCH表达式，各关键词之间为AND关系；没有可检索的内容时返回null
+     */
+    public static String toMatchQuery(String query) {
+        List<String> clauses = new ArrayList<>();
+        for (String term : terms(query)) {
+            if (isCjk(term.codePointAt(0))) {
+                if (term.codePointCount(0, term.length()) == 1) {
+                    // 单字匹配以该字开头的二元组或词尾单字
+                    clauses.add("\"" + term + "\"*");
+                } else {
+                    clauses.add("\"" + bigrams(term) + "\"");
+                }
+            } else {
+                clauses.add("\"" + term + "\"*");
+            }
+        }
+        return clauses.isEmpty() ? null : String.join(" AND ", clauses);
+    }
+
+    /**
+     * 拆分出关键词：连续的中日韩文字或连续的字母数字，其余字符视为分隔符
+     */
+    public static List<String> terms(String query) {
+        List<String> terms = new ArrayList<>();
+        if (query == null) {
+            return terms;
+        }
+        int i = 0;
+        while (i < query.length()) {
+            int cp = query.codePointAt(i);
+            if (isCjk(cp)) {
+                int end = cjkRunEnd(query, i);
+                terms.add(query.substring(i, end));
+                i = end;
+            } else if (Character.isLetterOrDigit(cp)) {
+                int end = i;
+                while (end < query.length()) {
+                    int c = query.codePointAt(end);
+                    if (isCjk(c) || !Character.isLetterOrDigit(c)) {
+                        break;
+                    }
+                    end += Character.charCount(c);
+                }
+                terms.add(query.substring(i, end).toLowerCase(Locale.ROOT));
+                i = end;
+            } else {
+                i += Character.charCount(cp);
+            }
+        }
+        return terms;
+    }
+
+    private static void appendBigrams(StringBuilder sb, String run) {
+        sb.append(' ').append(bigrams(run));
+        // 词尾单字，使单字查询也能命中连续文字的最后一个字
+        int lastStart = run.offsetByCodePoints(run.length(), -1);
+        if (lastStart > 0) {
+            sb.append(' ').append(run, lastStart, run.length());
+        }
+        sb.append(' ');
+    }
+
+    private static String bigrams(String run) {
+        int count = run.codePointCount(0, run.length());
+        if (count == 1) {
+            return run;
+        }
+        StringBuilder sb = new StringBuilder(run.length() * 3);
+        int start = 0;
+        for (int n = 0; n < count - 1; n++) {
+            int second = run.offsetByCodePoints(start, 1);
+            int end = run.offsetByCodePoints(second, 1);
+            if (n > 0) {
+                sb.append(' ');
+            }
+            sb.append(run, start, end);
+            start = second;
+        }
+        return sb.toString();
+    }
+
+    private static int cjkRunEnd(String text, int start) {
+        int end = start;
+        while (end < text.length()) {
+            int cp = text.codePointAt(end);
+            if (!isCjk(cp)) {
+                break;
+            }
+            end += Character.charCount(cp);
+        }
+        return end;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,55 @@
+package com.todolist.dao;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 待办事项表和标签表的写入计数，由DAO在每次写操作提交后递增，用于生成列表接口的ETag。
+ *
+ * 计数只保存在内存中，ETag带上进程启动时间，重启后不会与之前发出的ETag重复。
+ * 查询前先取ETag再查数据：写操作提交后才递增计数，取到新ETag时一定能查到新数据。
+ * 同一URL按Accept返回JSON、Smile或CBOR，内容相同而字节不同，因此使用弱ETag。
+ */
+@Component
+public class TableVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong todos = new AtomicLong();
+    private final AtomicLong tags = new AtomicLong();
+
+    public String todosETag() {
+        return "W/\"" + epoch + "-" + todos.get() + "\"";
+    }
+
+    public String tagsETag() {
+        return "W/\"" + epoch + "-" + tags.get() + "\"";
+    }
+
+    /**
+     * 待办事项（包括todo_tags关联）发生变化，处于事务中时在提交后递增
+     */
+    public void todosChanged() {
+        afterCommit(todos::incrementAndGet);
+    }
+
+    public void tagsChanged() {
+        afterCommit(tags::incrementAndGet);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
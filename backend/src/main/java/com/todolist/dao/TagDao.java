@@ -2,13 +2,12 @@ package com.todolist.dao;
 
 import com.todolist.entity.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
@@ -21,6 +20,14 @@ public class TagDao {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    // 只读连接池，查询不会被写操作阻塞
+    @Autowired
+    @Qualifier("readJdbcTemplate")
+    private JdbcTemplate readJdbcTemplate;
+
+    @Autowired
+    private TableVersions tableVersions;
+
     private final RowMapper<Tag> tagRowMapper = new RowMapper<Tag>() {
         @Override
         public Tag mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -35,21 +42,22 @@ public class TagDao {
 
     public List<Tag> findAll() {
         String sql = "SELECT * FROM tags ORDER BY name";
-        return jdbcTemplate.query(sql, tagRowMapper);
+        return readJdbcTemplate.query(sql, tagRowMapper);
     }
 
     public Tag findById(Long id) {
         String sql = "SELECT * FROM tags WHERE id = ?";
-        List<Tag> tags = jdbcTemplate.query(sql, tagRowMapper, id);
+        List<Tag> tags = readJdbcTemplate.query(sql, tagRowMapper, id);
         return tags.isEmpty() ? null : tags.get(0);
     }
 
     public Tag findByName(String name) {
         String sql = "SELECT * FROM tags WHERE name = ?";
-        List<Tag> tags = jdbcTemplate.query(sql, tagRowMapper, name);
+        List<Tag> tags = readJdbcTemplate.query(sql, tagRowMapper, name);
         return tags.isEmpty() ? null : tags.get(0);
     }
 
+    @Transactional
     public Tag save(Tag tag) {
         if (tag.getId() == null) {
             return insert(tag);
@@ -61,28 +69,30 @@ public class TagDao {
     private Tag insert(Tag tag) {
         String sql = "INSERT INTO tags (name, color, created_at) VALUES (?, ?, ?)";
         
-        KeyHolder keyHolder = new GeneratedKeyHolder();
+        LocalDateTime createdAt = tag.getCreatedAt() != null ? tag.getCreatedAt() : LocalDateTime.now();
+        jdbcTemplate.update(sql, tag.getName(), tag.getColor(), Timestamp.valueOf(createdAt));
         
-        jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(sql, new String[]{"id"});
-            ps.setString(1, tag.getName());
-            ps.setString(2, tag.getColor());
-            ps.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
-            return ps;
-        }, keyHolder);
+        // SQLite驱动不支持按列名返回生成的主键，在同一事务内获取最后插入的ID
+        Long id = jdbcTemplate.queryForObject("SELECT last_insert_rowid()", Long.class);
         
-        tag.setId(keyHolder.getKey().longValue());
+        tag.setId(id);
+        tag.setCreatedAt(createdAt);
         return tag;
     }
 
     private Tag update(Tag tag) {
         String sql = "UPDATE tags SET name = ?, color = ? WHERE id = ?";
         jdbcTemplate.update(sql, tag.getName(), tag.getColor(), tag.getId());
+        // 按标签名筛选待办事项的结果随之变化
+        tableVersions.todosChanged();
         return tag;
     }
 
+    @Transactional
     public void deleteById(Long id) {
+        jdbcTemplate.update("DELETE FROM todo_tags WHERE tag_id = ?", id);
         String sql = "DELETE FROM tags WHERE id = ?";
         jdbcTemplate.update(sql, id);
+        tableVersions.todosChanged();
     }
 }
@@ -0,0 +1,46 @@
+package com.todolist.dao;
+
+import com.todolist.entity.TodoItem;
+
+import java.util.List;
+
+/**
+ * 增量同步结果：since之后新增或修改的记录、删除的ID，以及下一次同步使用的标记。
+ * hasMore为true时应立即用nextToken继续同步；reset为true时客户端需丢弃本地数据，items为全量数据
+ */
+public class TodoChanges {
+
+    private final List<TodoItem> items;
+    private final List<Long> deletedIds;
+    private final String nextToken;
+    private final boolean hasMore;
+    private final boolean reset;
+
+    public TodoChanges(List<TodoItem> items, List<Long> deletedIds, String nextToken, boolean hasMore, boolean reset) {
+        this.items = items;
+        this.deletedIds = deletedIds;
+        this.nextToken = nextToken;
+        this.hasMore = hasMore;
+        this.reset = reset;
+    }
+
+    public List<TodoItem> getItems() {
+        return items;
+    }
+
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+}
@@ -0,0 +1,336 @@
+package com.todolist.dao;
+
+import com.todolist.entity.TodoItem;
+import com.todolist.entity.TodoStats;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 待办事项表的内存分面索引：每个状态、优先级和标签各对应一个以待办事项ID为元素的压缩位图（RoaringBitmap），
+ * 筛选条件下各状态、优先级、标签的数量通过位图求交集计数得到，不查询数据库。
+ *
+ * 启动时由 {@link TodoItemDao#rebuildFacetIndex()} 从数据库全量构建，之后由TodoItemDao的写操作在事务提交后增量更新。
+ * 写连接只有一个，提交后回调在连接释放之前执行，因此各次更新按提交顺序应用到索引上。
+ * 只包含待办事项表中的记录，不包含已归档的记录。ID按int存储，AUTOINCREMENT生成的ID不会超出范围。
+ */
+@Component
+public class TodoFacetIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Bitmaps bitmaps;
+    private long rebuildMillis;
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return bitmaps != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 用新构建的位图整体替换当前索引
+     */
+    void replace(Bitmaps rebuilt, long millis) {
+        rebuilt.all.runOptimize();
+        for (RoaringBitmap bitmap : rebuilt.values()) {
+            bitmap.runOptimize();
+        }
+        lock.writeLock().lock();
+        try {
+            bitmaps = rebuilt;
+            rebuildMillis = millis;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 写入或覆盖记录的状态、优先级和标签，提交后执行。标签取linkedTags中按ID给出的todo_tags关联的名称，
+     * 而不是记录的tags字段，与全量构建和按标签筛选一致
+     */
+    void putAfterCommit(Collection<TodoItem> items, Map<Long, List<String>> linkedTags) {
+        // 提交前复制需要的字段，调用方之后修改对象不影响索引
+        List<Entry> entries = new ArrayList<>(items.size());
+        for (TodoItem item : items) {
+            entries.add(new Entry(toInt(item.getId()), item.getStatus(), item.getPriority(),
+                    List.copyOf(linkedTags.getOrDefault(item.getId(), List.of()))));
+        }
+        afterCommit(current -> {
+            for (Entry entry : entries) {
+                current.removeEverywhere(entry.id);
+                current.all.add(entry.id);
+                if (entry.status != null) {
+                    current.byStatus.computeIfAbsent(entry.status, k -> new RoaringBitmap()).add(entry.id);
+                }
+                if (entry.priority != null) {
+                    current.byPriority.computeIfAbsent(entry.priority, k -> new RoaringBitmap()).add(entry.id);
+                }
+                for (String tag : entry.tags) {
+                    current.byTag.computeIfAbsent(tag, k -> new RoaringBitmap()).add(entry.id);
+                }
+            }
+        });
+    }
+
+    void removeAfterCommit(Collection<Long> ids) {
+        RoaringBitmap removed = toBitmap(ids);
+        afterCommit(current -> {
+            current.all.andNot(removed);
+            for (RoaringBitmap bitmap : current.values()) {
+                bitmap.andNot(removed);
+            }
+        });
+    }
+
+    void setStatusAfterCommit(Collection<Long> ids, int status) {
+        RoaringBitmap changed = toBitmap(ids);
+        afterCommit(current -> moveTo(current.byStatus, status, changed));
+    }
+
+    void setPriorityAfterCommit(Collection<Long> ids, int priority) {
+        RoaringBitmap changed = toBitmap(ids);
+        afterCommit(current -> moveTo(current.byPriority, priority, changed));
+    }
+
+    void addTagAfterCommit(Collection<Long> ids, String tag) {
+        RoaringBitmap changed = toBitmap(ids);
+        afterCommit(current -> current.byTag.computeIfAbsent(tag, k -> new RoaringBitmap()).or(changed));
+    }
+
+    void removeTagAfterCommit(Collection<Long> ids, String tag) {
+        RoaringBitmap changed = toBitmap(ids);
+        afterCommit(current -> {
+            RoaringBitmap bitmap = current.byTag.get(tag);
+            if (bitmap != null) {
+                bitmap.andNot(changed);
+            }
+        });
+    }
+
+    /**
+     * 标签改名后，按标签筛选时以新名称匹配原有的关联
+     */
+    public void renameTagAfterCommit(String oldName, String newName) {
+        afterCommit(current -> {
+            RoaringBitmap bitmap = current.byTag.remove(oldName);
+            if (bitmap != null) {
+                current.byTag.computeIfAbsent(newName, k -> new RoaringBitmap()).or(bitmap);
+            }
+        });
+    }
+
+    /**
+     * 删除标签时todo_tags中的关联一并删除，按该标签筛选不再有结果
+     */
+    public void dropTagAfterCommit(String name) {
+        afterCommit(current -> current.byTag.remove(name));
+    }
+
+    /**
+     * 统计满足全部条件的记录按状态、优先级、标签的数量，标签按数量降序；数量为0的项不返回
+     */
+    public TodoStats count(List<TodoFilter.Criterion> criteria) {
+        lock.readLock().lock();
+        try {
+            if (bitmaps == null) {
+                throw new IllegalStateException("分面索引尚未构建完成");
+            }
+            RoaringBitmap selected = bitmaps.all;
+            for (TodoFilter.Criterion criterion : criteria) {
+                selected = RoaringBitmap.and(selected, match(criterion));
+            }
+
+            TodoStats stats = new TodoStats();
+            stats.setTotal(selected.getLongCardinality());
+            countInto(selected, bitmaps.byStatus, stats.getByStatus());
+            countInto(selected, bitmaps.byPriority, stats.getByPriority());
+
+            List<Map.Entry<String, Long>> tagCounts = new ArrayList<>();
+            for (Map.Entry<String, RoaringBitmap> entry : bitmaps.byTag.entrySet()) {
+                long count = RoaringBitmap.andCardinality(selected, entry.getValue());
+                if (count > 0) {
+                    tagCounts.add(Map.entry(entry.getKey(), count));
+                }
+            }
+            tagCounts.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+            for (Map.Entry<String, Long> entry : tagCounts) {
+                stats.getByTag().put(entry.getKey(), entry.getValue());
+            }
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ready", bitmaps != null);
+            if (bitmaps != null) {
+                long bytes = bitmaps.all.getLongSizeInBytes();
+                for (RoaringBitmap bitmap : bitmaps.values()) {
+                    bytes += bitmap.getLongSizeInBytes();
+                }
+                stats.put("items", bitmaps.all.getLongCardinality());
+                stats.put("statuses", bitmaps.byStatus.size());
+                stats.put("priorities", bitmaps.byPriority.size());
+                stats.put("tags", bitmaps.byTag.size());
+                stats.put("sizeInBytes", bytes);
+                stats.put("rebuildMillis", rebuildMillis);
+            }
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 返回满足单个条件的记录位图，结果只读
+     */
+    private RoaringBitmap match(TodoFilter.Criterion criterion) {
+        if ("tag".equals(criterion.getField())) {
+            RoaringBitmap result = new RoaringBitmap();
+            for (Object tag : criterion.getValues()) {
+                RoaringBitmap bitmap = bitmaps.byTag.get(tag);
+                if (bitmap != null) {
+                    result.or(bitmap);
+                }
+            }
+            return result;
+        }
+
+        Map<Integer, RoaringBitmap> byValue = "status".equals(criterion.getField()) ? bitmaps.byStatus : bitmaps.byPriority;
+        RoaringBitmap result = new RoaringBitmap();
+        for (Map.Entry<Integer, RoaringBitmap> entry : byValue.entrySet()) {
+            if (matches(entry.getKey(), criterion)) {
+                result.or(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    private static boolean matches(int key, TodoFilter.Criterion criterion) {
+        String op = criterion.getOp();
+        if ("=".equals(op)) {
+            return criterion.getValues().contains(key);
+        }
+        int value = (Integer) criterion.getValues().get(0);
+        return switch (op) {
+            case "!=" -> key != value;
+            case ">" -> key > value;
+            case ">=" -> key >= value;
+            case "<" -> key < value;
+            case "<=" -> key <= value;
+            default -> throw new IllegalArgumentException("不支持的运算符: " + op);
+        };
+    }
+
+    private static void countInto(RoaringBitmap selected, Map<Integer, RoaringBitmap> byValue, Map<Integer, Long> counts) {
+        for (Map.Entry<Integer, RoaringBitmap> entry : byValue.entrySet()) {
+            long count = RoaringBitmap.andCardinality(selected, entry.getValue());
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+            }
+        }
+    }
+
+    private static void moveTo(Map<Integer, RoaringBitmap> byValue, int value, RoaringBitmap changed) {
+        for (RoaringBitmap bitmap : byValue.values()) {
+            bitmap.andNot(changed);
+        }
+        byValue.computeIfAbsent(value, k -> new RoaringBitmap()).or(changed);
+    }
+
+    private static RoaringBitmap toBitmap(Collection<Long> ids) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (Long id : ids) {
+            bitmap.add(toInt(id));
+        }
+        return bitmap;
+    }
+
+    private static int toInt(Long id) {
+        return Math.toIntExact(id);
+    }
+
+    /**
+     * 在事务提交后持有写锁修改索引，不在事务中时立即执行；索引尚未构建时忽略，构建时会读到最新数据
+     */
+    private void afterCommit(Consumer<Bitmaps> action) {
+        Runnable apply = () -> {
+            lock.writeLock().lock();
+            try {
+                if (bitmaps != null) {
+                    action.accept(bitmaps);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private static class Entry {
+        private final int id;
+        private final Integer status;
+        private final Integer priority;
+        private final List<String> tags;
+
+        Entry(int id, Integer status, Integer priority, List<String> tags) {
+            this.id = id;
+            this.status = status;
+            this.priority = priority;
+            this.tags = tags;
+        }
+    }
+
+    /**
+     * 一组完整的位图：全部记录，以及按状态、优先级、标签划分的记录
+     */
+    static class Bitmaps {
+        final RoaringBitmap all = new RoaringBitmap();
+        final Map<Integer, RoaringBitmap> byStatus = new TreeMap<>();
+        final Map<Integer, RoaringBitmap> byPriority = new TreeMap<>();
+        final Map<String, RoaringBitmap> byTag = new HashMap<>();
+
+        void removeEverywhere(int id) {
+            all.remove(id);
+            for (RoaringBitmap bitmap : values()) {
+                bitmap.remove(id);
+            }
+        }
+
+        List<RoaringBitmap> values() {
+            List<RoaringBitmap> values = new ArrayList<>(byStatus.size() + byPriority.size() + byTag.size());
+            values.addAll(byStatus.values());
+            values.addAll(byPriority.values());
+            values.addAll(byTag.values());
+            return values;
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package com.todolist.dao;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 待办事项筛选条件，所有条件以AND组合后编译为一条参数化SQL的WHERE子句。
+ *
+ * 支持的表达式语法（子句之间用 AND 连接）：
+ * <pre>
+ *   status:0,1 AND priority>=2 AND tag:迁云项目-阿里云 AND created:[2025-09-01,2025-09-30]
+ * </pre>
+ * 字段：status、priority（整数），tag（标签名，可用双引号包裹），created、updated、completed（日期）。
+ * 运算符：{@code : = != > >= < <=}，其中 {@code :} 支持逗号分隔的多个值或 {@code [起,止]} 闭区间，
+ * 区间任一端可留空。日期格式为 yyyy-MM-dd 或 yyyy-MM-ddTHH:mm:ss，仅有日期时按整天计算。
+ */
+public class TodoFilter {
+
+    private static final Map<String, String> DATE_COLUMNS = Map.of(
+            "created", "created_at",
+            "updated", "updated_at",
+            "completed", "completed_at"
+    );
+
+    private static final Map<String, String> NUMBER_COLUMNS = Map.of(
+            "status", "status",
+            "priority", "priority"
+    );
+
+    /**
+     * 查询范围：只查询待办事项表（默认）、同时查询归档表，或只查询归档表
+     */
+    public enum Scope {
+        ACTIVE, ALL, ARCHIVED
+    }
+
+    private final List<String> conditions = new ArrayList<>();
+    private final List<Object> args = new ArrayList<>();
+    // 结构化的status、priority、tag条件；包含其他条件（日期、ID）时为null
+    private List<Criterion> criteria = new ArrayList<>();
+    private Scope scope = Scope.ACTIVE;
+
+    public static TodoFilter parse(String expression) {
+        TodoFilter filter = new TodoFilter();
+        if (expression != null && !expression.trim().isEmpty()) {
+            new Parser(expression, filter).parse();
+        }
+        return filter;
+    }
+
+    public TodoFilter statusIn(List<Integer> statuses) {
+        return in("status", statuses);
+    }
+
+    public TodoFilter idIn(List<Long> ids) {
+        return in("id", ids);
+    }
+
+    public TodoFilter priority(String op, Integer priority) {
+        return compare("priority", op, priority);
+    }
+
+    /**
+     * 匹配包含任一指定标签的待办事项，通过todo_tags关联表精确匹配
+     */
+    public TodoFilter tagIn(List<String> tags) {
+        if (tags.isEmpty()) {
+            return this;
+        }
+        conditions.add("id IN (SELECT tt.todo_id FROM todo_tags tt JOIN tags g ON g.id = tt.tag_id WHERE g.name IN ("
+                + placeholders(tags.size()) + "))");
+        args.addAll(tags);
+        addCriterion("tag", "=", tags);
+        return this;
+    }
+
+    public TodoFilter createdBetween(LocalDateTime start, LocalDateTime end) {
+        return between("created_at", start, end);
+    }
+
+    public TodoFilter scope(Scope scope) {
+        this.scope = scope;
+        return this;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public boolean isEmpty() {
+        return conditions.isEmpty();
+    }
+
+    /**
+     * 返回以 " WHERE " 开头的条件子句，没有条件时返回空字符串
+     */
+    public String toWhereClause() {
+        if (conditions.isEmpty()) {
+            return "";
+        }
+        return " WHERE " + String.join(" AND ", conditions);
+    }
+
+    public List<Object> getArgs() {
+        return Collections.unmodifiableList(args);
+    }
+
+    /**
+     * 返回全部条件的结构化形式，供内存中的分面索引求值；包含日期或ID条件时返回null
+     */
+    public List<Criterion> getCriteria() {
+        return criteria == null ? null : Collections.unmodifiableList(criteria);
+    }
+
+    private TodoFilter in(String column, List<?> values) {
+        if (values.isEmpty()) {
+            return this;
+        }
+        if (values.size() == 1) {
+            conditions.add(column + " = ?");
+        } else {
+            conditions.add(column + " IN (" + placeholders(values.size()) + ")");
+        }
+        args.addAll(values);
+        addCriterion(column, "=", values);
+        return this;
+    }
+
+    private TodoFilter compare(String column, String op, Object value) {
+        String sqlOp = ":".equals(op) ? "=" : op;
+        conditions.add(column + " " + sqlOp + " ?");
+        args.add(value);
+        addCriterion(column, sqlOp, List.of(value));
+        return this;
+    }
+
+    private void addCriterion(String field, String op, List<?> values) {
+        if (criteria == null) {
+            return;
+        }
+        if ("tag".equals(field) || NUMBER_COLUMNS.containsKey(field)) {
+            criteria.add(new Criterion(field, op, values));
+        } else {
+            criteria = null;
+        }
+    }
+
+    private TodoFilter between(String column, LocalDateTime start, LocalDateTime end) {
+        if (start != null) {
+            compare(column, ">=", Timestamp.valueOf(start));
+        }
+        if (end != null) {
+            compare(column, "<=", Timestamp.valueOf(end));
+        }
+        return this;
+    }
+
+    /**
+     * 单个筛选条件：字段为status、priority或tag，运算符为 {@code = != > >= < <=}，
+     * 多个值表示匹配其中任一个（只用于 =）
+     */
+    public static class Criterion {
+        private final String field;
+        private final String op;
+        private final List<?> values;
+
+        Criterion(String field, String op, List<?> values) {
+            this.field = field;
+            this.op = op;
+            this.values = List.copyOf(values);
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public String getOp() {
+            return op;
+        }
+
+        public List<?> getValues() {
+            return values;
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * 筛选表达式解析器，逐字符扫描，不依赖正则以便正确处理引号中的空格和逗号
+     */
+    private static class Parser {
+        private final String input;
+        private final TodoFilter filter;
+        private int pos;
+
+        Parser(String input, TodoFilter filter) {
+            this.input = input;
+            this.filter = filter;
+        }
+
+        void parse() {
+            skipSpaces();
+            while (pos < input.length()) {
+                parseClause();
+                skipSpaces();
+                if (pos >= input.length()) {
+                    break;
+                }
+                if (!input.regionMatches(true, pos, "AND", 0, 3)
+                        || pos + 3 >= input.length()
+                        || !Character.isWhitespace(input.charAt(pos + 3))) {
+                    throw error("此处应为 AND");
+                }
+                pos += 3;
+                skipSpaces();
+                if (pos >= input.length()) {
+                    throw error("AND 之后缺少筛选条件");
+                }
+            }
+        }
+
+        private void parseClause() {
+            int start = pos;
+            while (pos < input.length() && Character.isLetter(input.charAt(pos))) {
+                pos++;
+            }
+            String field = input.substring(start, pos).toLowerCase(Locale.ROOT);
+            if (field.isEmpty()) {
+                throw error("缺少筛选字段");
+            }
+            String op = parseOperator();
+
+            if (pos < input.length() && input.charAt(pos) == '[') {
+                if (!":".equals(op)) {
+                    throw error("区间只能与 : 一起使用");
+                }
+                String[] range = parseRange();
+                applyRange(field, range[0], range[1]);
+            } else {
+                applyValues(field, op, parseValues());
+            }
+        }
+
+        private String parseOperator() {
+            for (String op : new String[]{">=", "<=", "!=", ">", "<", ":", "="}) {
+                if (input.startsWith(op, pos)) {
+                    pos += op.length();
+                    return op;
+                }
+            }
+            throw error("缺少运算符");
+        }
+
+        private String[] parseRange() {
+            pos++; // 跳过 [
+            String from = parseValue(",]");
+            expect(',');
+            String to = parseValue("]");
+            expect(']');
+            return new String[]{from, to};
+        }
+
+        private List<String> parseValues() {
+            List<String> values = new ArrayList<>();
+            values.add(parseValue(","));
+            while (pos < input.length() && input.charAt(pos) == ',') {
+                pos++;
+                values.add(parseValue(","));
+            }
+            for (String value : values) {
+                if (value.isEmpty()) {
+                    throw error("筛选值不能为空");
+                }
+            }
+            return values;
+        }
+
+        private String parseValue(String terminators) {
+            if (pos < input.length() && input.charAt(pos) == '"') {
+                pos++;
+                StringBuilder sb = new StringBuilder();
+                while (pos < input.length() && input.charAt(pos) != '"') {
+                    char c = input.charAt(pos++);
+                    if (c == '\\' && pos < input.length()) {
+                        c = input.charAt(pos++);
+                    }
+                    sb.append(c);
+                }
+                expect('"');
+                return sb.toString();
+            }
+            int start = pos;
+            while (pos < input.length()
+                    && !Character.isWhitespace(input.charAt(pos))
+                    && terminators.indexOf(input.charAt(pos)) < 0) {
+                pos++;
+            }
+            return input.substring(start, pos);
+        }
+
+        private void applyValues(String field, String op, List<String> values) {
+            boolean equality = ":".equals(op) || "=".equals(op);
+            if (values.size() > 1 && !equality) {
+                throw error("多个值只能与 : 一起使用");
+            }
+
+            if (NUMBER_COLUMNS.containsKey(field)) {
+                String column = NUMBER_COLUMNS.get(field);
+                if (equality) {
+                    List<Integer> numbers = new ArrayList<>();
+                    for (String value : values) {
+                        numbers.add(parseInt(value));
+                    }
+                    filter.in(column, numbers);
+                } else {
+                    filter.compare(column, op, parseInt(values.get(0)));
+                }
+            } else if ("tag".equals(field)) {
+                if (!equality) {
+                    throw error("tag 仅支持 : 运算符");
+                }
+                filter.tagIn(values);
+            } else if (DATE_COLUMNS.containsKey(field)) {
+                String column = DATE_COLUMNS.get(field);
+                String value = values.get(0);
+                switch (op) {
+                    case ":", "=" -> applyRange(field, value, value);
+                    case ">=" -> filter.compare(column, ">=", lowerBound(value, true));
+                    case ">" -> filter.compare(column, ">=", lowerBound(value, false));
+                    case "<=" -> filter.compare(column, "<", upperBound(value, true));
+                    case "<" -> filter.compare(column, "<", upperBound(value, false));
+                    default -> throw error("日期字段不支持运算符 " + op);
+                }
+            } else {
+                throw error("未知的筛选字段: " + field);
+            }
+        }
+
+        private void applyRange(String field, String from, String to) {
+            if (NUMBER_COLUMNS.containsKey(field)) {
+                String column = NUMBER_COLUMNS.get(field);
+                if (!from.isEmpty()) {
+                    filter.compare(column, ">=", parseInt(from));
+                }
+                if (!to.isEmpty()) {
+                    filter.compare(column, "<=", parseInt(to));
+                }
+            } else if (DATE_COLUMNS.containsKey(field)) {
+                String column = DATE_COLUMNS.get(field);
+                if (!from.isEmpty()) {
+                    filter.compare(column, ">=", lowerBound(from, true));
+                }
+                if (!to.isEmpty()) {
+                    filter.compare(column, "<", upperBound(to, true));
+                }
+            } else {
+                throw error("字段 " + field + " 不支持区间筛选");
+            }
+        }
+
+        /**
+         * 计算下界：包含时取当天零点（或精确时间），不包含时取次日零点（或下一秒）
+         */
+        private Timestamp lowerBound(String value, boolean inclusive) {
+            if (isDateOnly(value)) {
+                LocalDate date = parseDate(value);
+                return Timestamp.valueOf((inclusive ? date : date.plusDays(1)).atStartOfDay());
+            }
+            LocalDateTime dateTime = parseDateTime(value);
+            return Timestamp.valueOf(inclusive ? dateTime : dateTime.plusSeconds(1));
+        }
+
+        /**
+         * 计算不包含的上界，日期按整天处理
+         */
+        private Timestamp upperBound(String value, boolean inclusive) {
+            if (isDateOnly(value)) {
+                LocalDate date = parseDate(value);
+                return Timestamp.valueOf((inclusive ? date.plusDays(1) : date).atStartOfDay());
+            }
+            LocalDateTime dateTime = parseDateTime(value);
+            return Timestamp.valueOf(inclusive ? dateTime.plusSeconds(1) : dateTime);
+        }
+
+        private boolean isDateOnly(String value) {
+            return value.indexOf('T') < 0;
+        }
+
+        private LocalDate parseDate(String value) {
+            try {
+                return LocalDate.parse(value);
+            } catch (DateTimeParseException e) {
+                throw error("无法解析日期: " + value);
+            }
+        }
+
+        private LocalDateTime parseDateTime(String value) {
+            try {
+                return LocalDateTime.parse(value);
+            } catch (DateTimeParseException e) {
+                throw error("无法解析日期时间: " + value);
+            }
+        }
+
+        private int parseInt(String value) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw error("无法解析数字: " + value);
+            }
+        }
+
+        private void expect(char c) {
+            if (pos >= input.length() || input.charAt(pos) != c) {
+                throw error("此处应为 " + c);
+            }
+            pos++;
+        }
+
+        private void skipSpaces() {
+            while (pos < input.length() && Character.isWhitespace(input.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("筛选表达式错误（位置 " + pos + "）: " + message);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.todolist.dao;
+
+import com.todolist.entity.TodoItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * TodoItem按ID的进程内缓存，按容量做LRU淘汰并设置过期时间。
+ *
+ * 缓存中保存的是副本，读取时也返回副本，调用方修改返回的对象不会影响缓存。
+ * 写操作在事务提交后才写入缓存；每次写操作都会递增代数，查询期间发生过写操作时查询结果不会回填缓存，
+ * 避免并发读写时旧数据覆盖新数据。
+ */
+@Component
+public class TodoItemCache {
+
+    @Value("${cache.todo.max-size:10000}")
+    private int maxSize;
+
+    @Value("${cache.todo.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > maxSize) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public synchronized TodoItem get(Long id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expiresAt < System.nanoTime()) {
+            entries.remove(id);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return copyOf(entry.item);
+    }
+
+    /**
+     * 返回当前代数，查询数据库前获取，用于 {@link #putIfUnchanged}
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * 查询期间没有发生写操作时才回填缓存
+     */
+    public synchronized void putIfUnchanged(TodoItem item, long expectedGeneration) {
+        if (generation == expectedGeneration) {
+            store(item);
+        }
+    }
+
+    /**
+     * 写操作后更新缓存，处于事务中时在提交后执行
+     */
+    public void putAfterCommit(TodoItem item) {
+        TodoItem copy = copyOf(item);
+        invalidate(copy.getId());
+        afterCommit(() -> {
+            synchronized (this) {
+                generation++;
+                store(copy);
+            }
+        });
+    }
+
+    /**
+     * 写操作后移除缓存，处于事务中时提交后再移除一次
+     */
+    public void evictAfterCommit(Long id) {
+        invalidate(id);
+        afterCommit(() -> invalidate(id));
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long requests = hits + misses;
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("expirations", expirations);
+        stats.put("hitRate", requests > 0 ? Math.round(hits * 1000.0 / requests) / 10.0 : 0.0);
+        return stats;
+    }
+
+    private synchronized void invalidate(Long id) {
+        generation++;
+        entries.remove(id);
+    }
+
+    private void store(TodoItem item) {
+        if (maxSize <= 0) {
+            return;
+        }
+        entries.put(item.getId(), new Entry(copyOf(item), System.nanoTime() + ttlSeconds * 1_000_000_000L));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static TodoItem copyOf(TodoItem item) {
+        TodoItem copy = new TodoItem();
+        copy.setId(item.getId());
+        copy.setTitle(item.getTitle());
+        copy.setDescription(item.getDescription());
+        copy.setPriority(item.getPriority());
+        copy.setStatus(item.getStatus());
+        // 尚未解析的JSON直接复制字符串，不触发解析
+        if (item.getRawTags() != null) {
+            copy.setRawTags(item.getRawTags());
+        } else {
+            copy.setTags(item.getTags() != null ? new ArrayList<>(item.getTags()) : new ArrayList<>());
+        }
+        if (item.getRawImagePaths() != null) {
+            copy.setRawImagePaths(item.getRawImagePaths());
+        } else {
+            copy.setImagePaths(item.getImagePaths() != null ? new ArrayList<>(item.getImagePaths()) : new ArrayList<>());
+        }
+        copy.setCompletedAt(item.getCompletedAt());
+        copy.setCreatedAt(item.getCreatedAt());
+        copy.setUpdatedAt(item.getUpdatedAt());
+        copy.setVersion(item.getVersion());
+        return copy;
+    }
+
+    private static class Entry {
+        private final TodoItem item;
+        private final long expiresAt;
+
+        Entry(TodoItem item, long expiresAt) {
+            this.item = item;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
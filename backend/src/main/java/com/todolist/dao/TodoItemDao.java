@@ -1,19 +1,30 @@
 package com.todolist.dao;
 
+import com.todolist.entity.Tag;
 import com.todolist.entity.TodoItem;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.todolist.entity.TodoSearchHit;
+import com.todolist.entity.TodoStats;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Repository
 public class TodoItemDao {
@@ -21,67 +32,68 @@ public class TodoItemDao {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    // 只读连接池，查询不会被写操作阻塞
+    @Autowired
+    @Qualifier("readJdbcTemplate")
+    private JdbcTemplate readJdbcTemplate;
+
+    @Autowired
+    private TodoItemCache todoItemCache;
+
+    @Autowired
+    private TodoFacetIndex facetIndex;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    // 归档数据库文件路径，为空时归档表与待办事项表在同一数据库中；不为空时由DataSourceConfig以archive为名附加到每个连接
+    @Value("${archive.database:}")
+    private String archiveDatabase;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    private final RowMapper<TodoItem> todoItemRowMapper = new RowMapper<TodoItem>() {
-        @Override
-        public TodoItem mapRow(ResultSet rs, int rowNum) throws SQLException {
-            TodoItem item = new TodoItem();
-            item.setId(rs.getLong("id"));
-            item.setTitle(rs.getString("title"));
-            item.setDescription(rs.getString("description"));
-            item.setPriority(rs.getInt("priority"));
-            item.setStatus(rs.getInt("status"));
-            
-            // 解析JSON格式的标签
-            String tagsJson = rs.getString("tags");
-            if (tagsJson != null && !tagsJson.isEmpty()) {
-                try {
-                    List<String> tags = objectMapper.readValue(tagsJson, new TypeReference<List<String>>() {});
-                    item.setTags(tags);
-                } catch (Exception e) {
-                    item.setTags(new ArrayList<>());
-                }
-            } else {
-                item.setTags(new ArrayList<>());
-            }
-            
-            // 解析JSON格式的图片路径
-            String imagePathsJson = rs.getString("image_paths");
-            if (imagePathsJson != null && !imagePathsJson.isEmpty()) {
-                try {
-                    List<String> imagePaths = objectMapper.readValue(imagePathsJson, new TypeReference<List<String>>() {});
-                    item.setImagePaths(imagePaths);
-                } catch (Exception e) {
-                    item.setImagePaths(new ArrayList<>());
-                }
-            } else {
-                item.setImagePaths(new ArrayList<>());
-            }
-            
-            Timestamp completedAt = rs.getTimestamp("completed_at");
-            if (completedAt != null) {
-                item.setCompletedAt(completedAt.toLocalDateTime());
-            }
-            
-            item.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-            item.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
-            
-            return item;
-        }
-    };
+    private static final String COLUMNS = TodoProjection.ALL.columns(null);
+    private static final String T_COLUMNS = TodoProjection.ALL.columns("t");
+
+    // tags列不是合法JSON（NULL或空字符串）时按空数组处理
+    private static final String VALID_TAGS = "CASE WHEN json_valid(todo_items.tags) THEN todo_items.tags ELSE '[]' END";
+
+    private final RowMapper<TodoItem> todoItemRowMapper = (rs, rowNum) -> TodoProjection.ALL.mapRow(rs);
 
     public List<TodoItem> findAll() {
-        String sql = "SELECT * FROM todo_items ORDER BY created_at DESC";
-        return jdbcTemplate.query(sql, todoItemRowMapper);
+        String sql = "SELECT " + COLUMNS + " FROM todo_items ORDER BY created_at DESC";
+        return readJdbcTemplate.query(sql, todoItemRowMapper);
     }
 
     public TodoItem findById(Long id) {
-        String sql = "SELECT * FROM todo_items WHERE id = ?";
-        List<TodoItem> items = jdbcTemplate.query(sql, todoItemRowMapper, id);
-        return items.isEmpty() ? null : items.get(0);
+        return findById(id, TodoProjection.ALL);
     }
 
+    /**
+     * 按ID查询，缓存命中时直接返回完整记录；未命中且只查询部分字段时结果不回填缓存
+     */
+    public TodoItem findById(Long id, TodoProjection projection) {
+        TodoItem cached = todoItemCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        if (!projection.isAll()) {
+            String sql = "SELECT " + projection.columns(null) + " FROM todo_items WHERE id = ?";
+            List<TodoItem> items = readJdbcTemplate.query(sql, (rs, rowNum) -> projection.mapRow(rs), id);
+            return items.isEmpty() ? null : items.get(0);
+        }
+
+        long generation = todoItemCache.generation();
+        String sql = "SELECT " + COLUMNS + " FROM todo_items WHERE id = ?";
+        List<TodoItem> items = readJdbcTemplate.query(sql, todoItemRowMapper, id);
+        if (items.isEmpty()) {
+            return null;
+        }
+        todoItemCache.putIfUnchanged(items.get(0), generation);
+        return items.get(0);
+    }
+
+    @Transactional
     public TodoItem save(TodoItem item) {
         if (item.getId() == null) {
             return insert(item);
@@ -91,7 +103,7 @@ public class TodoItemDao {
     }
 
     private TodoItem insert(TodoItem item) {
-        String sql = "INSERT INTO todo_items (title, description, priority, status, tags, image_paths, completed_at, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO todo_items (title, description, priority, status, tags, image_paths, completed_at, created_at, updated_at, change_seq) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
         
         final String tagsJson;
@@ -103,6 +115,8 @@ public class TodoItemDao {
             throw new RuntimeException("JSON processing error", e);
         }
         
+        // 数据库中时间精确到毫秒，与写入缓存的对象保持一致
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
         jdbcTemplate.update(sql,
                 item.getTitle(),
                 item.getDescription(),
@@ -111,18 +125,87 @@ public class TodoItemDao {
                 tagsJson,
                 imagePathsJson,
                 item.getCompletedAt() != null ? Timestamp.valueOf(item.getCompletedAt()) : null,
-                Timestamp.valueOf(LocalDateTime.now()),
-                Timestamp.valueOf(LocalDateTime.now()));
+                Timestamp.valueOf(now),
+                Timestamp.valueOf(now),
+                nextChangeSeq(1));
         
         // 获取最后插入的ID
         Long id = jdbcTemplate.queryForObject("SELECT last_insert_rowid()", Long.class);
         
         item.setId(id);
+        item.setVersion(0L);
+        item.setCreatedAt(now);
+        item.setUpdatedAt(now);
+        syncTags(id, item.getTags());
+        indexForSearch(List.of(item));
+        todoItemCache.putAfterCommit(item);
+        indexAfterCommit(List.of(item));
+        tableVersions.todosChanged();
         return item;
     }
 
+    /**
+     * 在一个事务内通过一条批量预编译语句插入多条待办事项，按顺序回填生成的ID。
+     * 写操作由单连接写池串行执行且使用AUTOINCREMENT，同一事务内生成的ID是连续的。
+     * 创建和更新时间使用待办事项中的值（如导入时解析出的日期），为空时使用当前时间。
+     */
+    @Transactional
+    public List<TodoItem> insertAll(List<TodoItem> items) {
+        if (items.isEmpty()) {
+            return items;
+        }
+
+        String sql = "INSERT INTO todo_items (title, description, priority, status, tags, image_paths, completed_at, created_at, updated_at, change_seq) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long changeSeq = nextChangeSeq(items.size()) - items.size() + 1;
+
+        List<Object[]> batchArgs = new ArrayList<>(items.size());
+        try {
+            for (TodoItem item : items) {
+                batchArgs.add(new Object[]{
+                        item.getTitle(),
+                        item.getDescription(),
+                        item.getPriority(),
+                        item.getStatus(),
+                        item.getTags() != null ? objectMapper.writeValueAsString(item.getTags()) : null,
+                        item.getImagePaths() != null ? objectMapper.writeValueAsString(item.getImagePaths()) : null,
+                        item.getCompletedAt() != null ? Timestamp.valueOf(item.getCompletedAt()) : null,
+                        item.getCreatedAt() != null ? Timestamp.valueOf(item.getCreatedAt()) : now,
+                        item.getUpdatedAt() != null ? Timestamp.valueOf(item.getUpdatedAt()) : now,
+                        changeSeq++
+                });
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("JSON processing error", e);
+        }
+        jdbcTemplate.batchUpdate(sql, batchArgs);
+
+        Long lastId = jdbcTemplate.queryForObject("SELECT last_insert_rowid()", Long.class);
+        long id = lastId - items.size() + 1;
+
+        List<Object[]> linkArgs = new ArrayList<>();
+        for (TodoItem item : items) {
+            item.setId(id);
+            item.setVersion(0L);
+            if (item.getTags() != null) {
+                for (String tag : item.getTags()) {
+                    linkArgs.add(new Object[]{id, tag});
+                }
+            }
+            id++;
+        }
+
+        if (!linkArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT OR IGNORE INTO todo_tags (todo_id, tag_id) SELECT ?, id FROM tags WHERE name = ?", linkArgs);
+        }
+        indexForSearch(items);
+        indexAfterCommit(items);
+        tableVersions.todosChanged();
+        return items;
+    }
+
     private TodoItem update(TodoItem item) {
-        String sql = "UPDATE todo_items SET title = ?, description = ?, priority = ?, status = ?, tags = ?, image_paths = ?, completed_at = ?, updated_at = ? WHERE id = ?";
+        String sql = "UPDATE todo_items SET title = ?, description = ?, priority = ?, status = ?, tags = ?, image_paths = ?, completed_at = ?, updated_at = ?, version = version + 1, change_seq = ? WHERE id = ?";
         
         String tagsJson;
         String imagePathsJson;
@@ -142,35 +225,640 @@ public class TodoItemDao {
                 imagePathsJson,
                 item.getCompletedAt() != null ? Timestamp.valueOf(item.getCompletedAt()) : null,
                 Timestamp.valueOf(LocalDateTime.now()),
+                nextChangeSeq(1),
                 item.getId());
         
+        syncTags(item.getId(), item.getTags());
+        indexForSearch(List.of(item));
+        if (item.getVersion() != null) {
+            item.setVersion(item.getVersion() + 1);
+        }
+        todoItemCache.evictAfterCommit(item.getId());
+        indexAfterCommit(List.of(item));
+        tableVersions.todosChanged();
         return item;
     }
 
+    /**
+     * 只更新changes中的非空字段，通过一条 UPDATE ... RETURNING 语句完成并返回更新后的记录。
+     * expectedVersion不为空时只在版本号一致时更新；记录不存在或版本不一致时返回null。
+     */
+    @Transactional
+    public TodoItem updateFields(Long id, TodoItem changes, Long expectedVersion) {
+        List<String> assignments = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        try {
+            if (changes.getTitle() != null) {
+                assignments.add("title = ?");
+                args.add(changes.getTitle());
+            }
+            if (changes.getDescription() != null) {
+                assignments.add("description = ?");
+                args.add(changes.getDescription());
+            }
+            if (changes.getPriority() != null) {
+                assignments.add("priority = ?");
+                args.add(changes.getPriority());
+            }
+            if (changes.getStatus() != null) {
+                assignments.add("status = ?");
+                args.add(changes.getStatus());
+            }
+            if (changes.getTags() != null) {
+                assignments.add("tags = ?");
+                args.add(objectMapper.writeValueAsString(changes.getTags()));
+            }
+            if (changes.getImagePaths() != null) {
+                assignments.add("image_paths = ?");
+                args.add(objectMapper.writeValueAsString(changes.getImagePaths()));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("JSON processing error", e);
+        }
+        if (changes.getCompletedAt() != null) {
+            assignments.add("completed_at = ?");
+            args.add(Timestamp.valueOf(changes.getCompletedAt()));
+        } else if (Integer.valueOf(2).equals(changes.getStatus())) {
+            // 改为已完成时补充完成时间，与bulkSetStatus相同；已有完成时间的保留
+            assignments.add("completed_at = COALESCE(completed_at, ?)");
+            args.add(Timestamp.valueOf(LocalDateTime.now()));
+        }
+        assignments.add("updated_at = ?");
+        args.add(Timestamp.valueOf(LocalDateTime.now()));
+        assignments.add("version = version + 1");
+        assignments.add("change_seq = ?");
+        args.add(nextChangeSeq(1));
+
+        StringBuilder sql = new StringBuilder("UPDATE todo_items SET ")
+                .append(String.join(", ", assignments))
+                .append(" WHERE id = ?");
+        args.add(id);
+        if (expectedVersion != null) {
+            sql.append(" AND version = ?");
+            args.add(expectedVersion);
+        }
+        sql.append(" RETURNING ").append(COLUMNS);
+
+        List<TodoItem> items = jdbcTemplate.query(sql.toString(), todoItemRowMapper, args.toArray());
+        if (items.isEmpty()) {
+            return null;
+        }
+
+        TodoItem item = items.get(0);
+        if (changes.getTags() != null) {
+            syncTags(id, item.getTags());
+        }
+        if (changes.getTitle() != null || changes.getDescription() != null) {
+            indexForSearch(List.of(item));
+        }
+        todoItemCache.putAfterCommit(item);
+        indexAfterCommit(List.of(item));
+        tableVersions.todosChanged();
+        return item;
+    }
+
+    /**
+     * 分配count个连续的变更序号，返回其中最大的一个。调用方需保证在写事务内执行
+     */
+    private long nextChangeSeq(int count) {
+        Long value = jdbcTemplate.queryForObject(
+                "UPDATE change_sequence SET value = value + ? WHERE id = 1 RETURNING value", Long.class, count);
+        return value != null ? value : 0L;
+    }
+
+    /**
+     * 为变更序号尚未初始化的记录按ID顺序分配序号
+     */
+    @Transactional
+    public void initChangeSequence() {
+        jdbcTemplate.update("UPDATE todo_items SET change_seq = id + (SELECT value FROM change_sequence WHERE id = 1) WHERE change_seq = 0");
+        jdbcTemplate.update("UPDATE change_sequence SET value = MAX(value, (SELECT COALESCE(MAX(change_seq), 0) FROM todo_items)) WHERE id = 1");
+    }
+
+    /**
+     * 查询since之后的变更：新增或修改的记录按变更序号升序最多返回limit条，以及同一区间内删除的ID。
+     * since为0时返回全部记录。
+     * 先读取当前序号作为本次同步的上限，之后提交的写入留给下一次同步
+     */
+    public TodoChanges findChanges(long since, int limit) {
+        Long current = readJdbcTemplate.queryForObject("SELECT value FROM change_sequence WHERE id = 1", Long.class);
+        long upTo = current != null ? current : 0L;
+        // 标记超出当前序号（如数据库被重建），需要客户端丢弃本地数据后全量同步
+        boolean reset = since > upTo;
+        if (reset) {
+            since = 0;
+        }
+
+        String sql = "SELECT " + COLUMNS + ", change_seq FROM todo_items WHERE change_seq > ? AND change_seq <= ? ORDER BY change_seq LIMIT ?";
+        int seqIndex = TodoProjection.ALL.size() + 1;
+        List<Long> seqs = new ArrayList<>();
+        List<TodoItem> items = readJdbcTemplate.query(sql, (rs, rowNum) -> {
+            seqs.add(rs.getLong(seqIndex));
+            return TodoProjection.ALL.mapRow(rs);
+        }, since, upTo, limit + 1);
+
+        boolean hasMore = items.size() > limit;
+        if (hasMore) {
+            items = new ArrayList<>(items.subList(0, limit));
+            upTo = seqs.get(limit - 1);
+        }
+
+        List<Long> deletedIds = readJdbcTemplate.queryForList(
+                "SELECT todo_id FROM todo_tombstones WHERE change_seq > ? AND change_seq <= ? ORDER BY change_seq",
+                Long.class, since, upTo);
+        return new TodoChanges(items, deletedIds, String.valueOf(upTo), hasMore, reset);
+    }
+
+    /**
+     * 查询当前版本号，记录不存在时返回null
+     */
+    public Long findVersion(Long id) {
+        List<Long> versions = readJdbcTemplate.queryForList("SELECT version FROM todo_items WHERE id = ?", Long.class, id);
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    /**
+     * 更新全文索引，调用方需保证在写事务内执行
+     */
+    private void indexForSearch(List<TodoItem> items) {
+        List<Object[]> deleteArgs = new ArrayList<>(items.size());
+        List<Object[]> insertArgs = new ArrayList<>(items.size());
+        for (TodoItem item : items) {
+            deleteArgs.add(new Object[]{item.getId()});
+            insertArgs.add(new Object[]{
+                    item.getId(),
+                    SearchTokenizer.toIndexText(item.getTitle()),
+                    SearchTokenizer.toIndexText(item.getDescription())
+            });
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM todo_search WHERE rowid = ?", deleteArgs);
+        jdbcTemplate.batchUpdate("INSERT INTO todo_search (rowid, title, description) VALUES (?, ?, ?)", insertArgs);
+    }
+
+    /**
+     * 根据todo_items重建全文索引
+     */
+    @Transactional
+    public void rebuildSearchIndex() {
+        jdbcTemplate.update("DELETE FROM todo_search");
+        List<Object[]> batch = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, title, description FROM todo_items", rs -> {
+            batch.add(new Object[]{
+                    rs.getLong("id"),
+                    SearchTokenizer.toIndexText(rs.getString("title")),
+                    SearchTokenizer.toIndexText(rs.getString("description"))
+            });
+        });
+        jdbcTemplate.batchUpdate("INSERT INTO todo_search (rowid, title, description) VALUES (?, ?, ?)", batch);
+    }
+
+    /**
+     * 将待办事项的标签同步到todo_tags关联表，按名称精确关联：标签需已存在于标签表中，
+     * 且名称与标签表一致（由TagService.resolveTags保证）
+     */
+    private void syncTags(Long todoId, List<String> tags) {
+        jdbcTemplate.update("DELETE FROM todo_tags WHERE todo_id = ?", todoId);
+        if (tags == null || tags.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> linkArgs = new ArrayList<>();
+        for (String tag : tags) {
+            linkArgs.add(new Object[]{todoId, tag});
+        }
+
+        jdbcTemplate.batchUpdate("INSERT OR IGNORE INTO todo_tags (todo_id, tag_id) SELECT ?, id FROM tags WHERE name = ?", linkArgs);
+    }
+
+    /**
+     * 根据todo_items.tags中的JSON数据一次性回填todo_tags关联表
+     */
+    @Transactional
+    public void backfillTodoTags() {
+        jdbcTemplate.update("INSERT OR IGNORE INTO tags (name, created_at) " +
+                "SELECT DISTINCT j.value, CAST(strftime('%s', 'now') AS INTEGER) * 1000 " +
+                "FROM todo_items t, json_each(t.tags) j " +
+                "WHERE json_valid(t.tags)");
+        jdbcTemplate.update("INSERT OR IGNORE INTO todo_tags (todo_id, tag_id) " +
+                "SELECT t.id, g.id FROM todo_items t, json_each(t.tags) j " +
+                "JOIN tags g ON g.name = j.value " +
+                "WHERE json_valid(t.tags)");
+        tableVersions.todosChanged();
+        tableVersions.tagsChanged();
+    }
+
+    /**
+     * 从待办事项表和todo_tags全量构建分面索引。通过写连接在事务中读取，
+     * 其他写操作排在构建之后执行并增量更新新的索引，不会遗漏
+     */
+    @Transactional
+    public void rebuildFacetIndex() {
+        long start = System.nanoTime();
+        TodoFacetIndex.Bitmaps bitmaps = new TodoFacetIndex.Bitmaps();
+        jdbcTemplate.query("SELECT id, status, priority FROM todo_items", (RowCallbackHandler) rs -> {
+            int id = Math.toIntExact(rs.getLong(1));
+            bitmaps.all.add(id);
+            int status = rs.getInt(2);
+            if (!rs.wasNull()) {
+                bitmaps.byStatus.computeIfAbsent(status, k -> new RoaringBitmap()).add(id);
+            }
+            int priority = rs.getInt(3);
+            if (!rs.wasNull()) {
+                bitmaps.byPriority.computeIfAbsent(priority, k -> new RoaringBitmap()).add(id);
+            }
+        });
+        // todo_tags保留了已归档记录的关联，只取待办事项表中的记录
+        jdbcTemplate.query("SELECT g.name, tt.todo_id FROM todo_tags tt " +
+                "JOIN todo_items t ON t.id = tt.todo_id " +
+                "JOIN tags g ON g.id = tt.tag_id", (RowCallbackHandler) rs -> {
+            bitmaps.byTag.computeIfAbsent(rs.getString(1), k -> new RoaringBitmap()).add(Math.toIntExact(rs.getLong(2)));
+        });
+        facetIndex.replace(bitmaps, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Transactional
     public void deleteById(Long id) {
+        jdbcTemplate.update("DELETE FROM todo_tags WHERE todo_id = ?", id);
+        jdbcTemplate.update("DELETE FROM todo_search WHERE rowid = ?", id);
         String sql = "DELETE FROM todo_items WHERE id = ?";
-        jdbcTemplate.update(sql, id);
+        if (jdbcTemplate.update(sql, id) > 0) {
+            jdbcTemplate.update("INSERT OR REPLACE INTO todo_tombstones (todo_id, change_seq, deleted_at) VALUES (?, ?, ?)",
+                    id, nextChangeSeq(1), Timestamp.valueOf(LocalDateTime.now()));
+        }
+        todoItemCache.evictAfterCommit(id);
+        facetIndex.removeAfterCommit(List.of(id));
+        tableVersions.todosChanged();
+    }
+
+    /**
+     * 批量修改状态，已是该状态的记录不修改；改为已完成时补充完成时间。返回被修改的ID
+     */
+    @Transactional
+    public List<Long> bulkSetStatus(TodoFilter filter, Integer status) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder assignments = new StringBuilder("status = ?");
+        args.add(status);
+        if (status == 2) {
+            assignments.append(", completed_at = COALESCE(completed_at, ?)");
+            args.add(Timestamp.valueOf(LocalDateTime.now()));
+        }
+        List<Long> ids = bulkUpdate(filter, assignments.toString(), args, "status IS NOT ?", List.of(status));
+        facetIndex.setStatusAfterCommit(ids, status);
+        return ids;
+    }
+
+    @Transactional
+    public List<Long> bulkSetPriority(TodoFilter filter, Integer priority) {
+        List<Long> ids = bulkUpdate(filter, "priority = ?", List.of(priority), "priority IS NOT ?", List.of(priority));
+        facetIndex.setPriorityAfterCommit(ids, priority);
+        return ids;
+    }
+
+    /**
+     * 为筛选结果中尚未包含该标签的记录追加标签。tags中写入标签表中的名称，todo_tags按标签ID关联
+     */
+    @Transactional
+    public List<Long> bulkAddTag(TodoFilter filter, Tag tag) {
+        String name = tag.getName();
+        List<Long> ids = bulkUpdate(filter,
+                "tags = json_insert(" + VALID_TAGS + ", '$[#]', ?)", List.of(name),
+                "NOT EXISTS (SELECT 1 FROM json_each(" + VALID_TAGS + ") WHERE value = ?)", List.of(name));
+        if (!ids.isEmpty()) {
+            jdbcTemplate.update("INSERT OR IGNORE INTO todo_tags (todo_id, tag_id) " +
+                    "SELECT value, ? FROM json_each(?)", tag.getId(), toJsonArray(ids));
+            facetIndex.addTagAfterCommit(ids, name);
+        }
+        return ids;
+    }
+
+    @Transactional
+    public List<Long> bulkRemoveTag(TodoFilter filter, String tag) {
+        List<Long> ids = bulkUpdate(filter,
+                "tags = (SELECT json_group_array(value) FROM json_each(todo_items.tags) WHERE value != ?)", List.of(tag),
+                "EXISTS (SELECT 1 FROM json_each(" + VALID_TAGS + ") WHERE value = ?)", List.of(tag));
+        if (!ids.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM todo_tags WHERE tag_id IN (SELECT id FROM tags WHERE name = ?) " +
+                    "AND todo_id IN (SELECT value FROM json_each(?))", tag, toJsonArray(ids));
+            facetIndex.removeTagAfterCommit(ids, tag);
+        }
+        return ids;
+    }
+
+    /**
+     * 标签改名后，把关联的待办事项（包括已归档的记录）tags中的旧名称换成新名称。需与修改标签表在同一事务中执行；
+     * 待办事项的版本号和变更序号随之更新，ETag、增量同步和缓存都能看到变化。返回被修改的待办事项ID
+     */
+    @Transactional
+    public List<Long> renameTagInTodos(Long tagId, String oldName, String newName) {
+        List<Long> ids = bulkUpdate(TodoFilter.parse(null),
+                "tags = (SELECT json_group_array(CASE WHEN value = ? THEN ? ELSE value END) FROM json_each(" + VALID_TAGS + "))",
+                List.of(oldName, newName),
+                "id IN (SELECT todo_id FROM todo_tags WHERE tag_id = ?)", List.of(tagId));
+        jdbcTemplate.update("UPDATE " + archiveTable() + " SET tags = (SELECT json_group_array(CASE WHEN value = ? THEN ? ELSE value END) " +
+                "FROM json_each(todo_items_archive.tags)) WHERE json_valid(tags) AND id IN (SELECT todo_id FROM todo_tags WHERE tag_id = ?)",
+                oldName, newName, tagId);
+        return ids;
+    }
+
+    /**
+     * 删除标签前，从关联的待办事项（包括已归档的记录）tags中去掉该标签，需与删除标签在同一事务中执行，
+     * 否则之后按显示的标签保存待办事项时会重新创建已删除的标签。返回被修改的待办事项ID
+     */
+    @Transactional
+    public List<Long> removeTagFromTodos(Long tagId, String name) {
+        List<Long> ids = bulkUpdate(TodoFilter.parse(null),
+                "tags = (SELECT json_group_array(value) FROM json_each(" + VALID_TAGS + ") WHERE value != ?)", List.of(name),
+                "id IN (SELECT todo_id FROM todo_tags WHERE tag_id = ?)", List.of(tagId));
+        jdbcTemplate.update("UPDATE " + archiveTable() + " SET tags = (SELECT json_group_array(value) " +
+                "FROM json_each(todo_items_archive.tags) WHERE value != ?) WHERE json_valid(tags) AND id IN (SELECT todo_id FROM todo_tags WHERE tag_id = ?)",
+                name, tagId);
+        return ids;
+    }
+
+    /**
+     * 通过一条 DELETE ... RETURNING 删除筛选结果，关联表、全文索引和墓碑记录按返回的ID集合批量维护
+     */
+    @Transactional
+    public List<Long> bulkDelete(TodoFilter filter) {
+        List<Long> ids = jdbcTemplate.queryForList("DELETE FROM todo_items" + filter.toWhereClause() + " RETURNING id",
+                Long.class, filter.getArgs().toArray());
+        if (ids.isEmpty()) {
+            return ids;
+        }
+
+        String idsJson = toJsonArray(ids);
+        jdbcTemplate.update("DELETE FROM todo_tags WHERE todo_id IN (SELECT value FROM json_each(?))", idsJson);
+        jdbcTemplate.update("DELETE FROM todo_search WHERE rowid IN (SELECT value FROM json_each(?))", idsJson);
+        long firstSeq = nextChangeSeq(ids.size()) - ids.size() + 1;
+        jdbcTemplate.update("INSERT OR REPLACE INTO todo_tombstones (todo_id, change_seq, deleted_at) " +
+                "SELECT value, ? + key, ? FROM json_each(?)", firstSeq, Timestamp.valueOf(LocalDateTime.now()), idsJson);
+        facetIndex.removeAfterCommit(ids);
+        afterBulkChange(ids);
+        return ids;
+    }
+
+    /**
+     * 以一条 UPDATE ... FROM 语句修改筛选结果中满足condition的记录，按ID顺序为每条记录分配连续的变更序号，
+     * 保证增量同步分页时序号不重复。返回被修改的ID
+     */
+    private List<Long> bulkUpdate(TodoFilter filter, String assignments, List<Object> assignmentArgs,
+                                  String condition, List<Object> conditionArgs) {
+        String where = filter.toWhereClause() + (filter.isEmpty() ? " WHERE " : " AND ") + condition;
+        String sql = "UPDATE todo_items SET " + assignments + ", updated_at = ?, version = version + 1, " +
+                "change_seq = (SELECT value FROM change_sequence WHERE id = 1) + t.rn " +
+                "FROM (SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS rn FROM todo_items" + where + ") AS t " +
+                "WHERE todo_items.id = t.id RETURNING id";
+        List<Object> args = new ArrayList<>(assignmentArgs);
+        args.add(Timestamp.valueOf(LocalDateTime.now()));
+        args.addAll(filter.getArgs());
+        args.addAll(conditionArgs);
+
+        List<Long> ids = jdbcTemplate.queryForList(sql, Long.class, args.toArray());
+        if (!ids.isEmpty()) {
+            nextChangeSeq(ids.size());
+            afterBulkChange(ids);
+        }
+        return ids;
+    }
+
+    /**
+     * 提交后更新分面索引。标签按todo_tags中的关联取当前的标签名：tags字段中可能还是改名前的名称或已删除的标签，
+     * 只修改状态等字段时不会重写，直接按tags更新会使索引与按标签筛选、全量构建的结果不一致
+     */
+    private void indexAfterCommit(List<TodoItem> items) {
+        Map<Long, List<String>> linkedTags = new HashMap<>();
+        RowCallbackHandler handler = rs -> linkedTags.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>()).add(rs.getString(2));
+        String sql = "SELECT tt.todo_id, g.name FROM todo_tags tt JOIN tags g ON g.id = tt.tag_id WHERE tt.todo_id ";
+        if (items.size() == 1) {
+            jdbcTemplate.query(sql + "= ?", handler, items.get(0).getId());
+        } else {
+            List<Long> ids = new ArrayList<>(items.size());
+            for (TodoItem item : items) {
+                ids.add(item.getId());
+            }
+            jdbcTemplate.query(sql + "IN (SELECT value FROM json_each(?))", handler, toJsonArray(ids));
+        }
+        facetIndex.putAfterCommit(items, linkedTags);
+    }
+
+    private void afterBulkChange(List<Long> ids) {
+        for (Long id : ids) {
+            todoItemCache.evictAfterCommit(id);
+        }
+        tableVersions.todosChanged();
+    }
+
+    private static String toJsonArray(List<Long> ids) {
+        StringBuilder json = new StringBuilder(ids.size() * 8).append('[');
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(ids.get(i));
+        }
+        return json.append(']').toString();
+    }
+
+    public List<TodoItem> findByFilter(TodoFilter filter) {
+        return findByFilter(filter, TodoProjection.ALL);
+    }
+
+    public List<TodoItem> findByFilter(TodoFilter filter, TodoProjection projection) {
+        String sql = "SELECT " + projection.columns(null) + " FROM " + source(filter) + filter.toWhereClause() + " ORDER BY created_at DESC, id DESC";
+        return readJdbcTemplate.query(sql, (rs, rowNum) -> projection.mapRow(rs), filter.getArgs().toArray());
+    }
+
+    /**
+     * 逐行读取筛选结果并交给consumer处理，不在内存中保留结果列表
+     */
+    public void streamByFilter(TodoFilter filter, TodoProjection projection, Consumer<TodoItem> consumer) {
+        String sql = "SELECT " + projection.columns(null) + " FROM " + source(filter) + filter.toWhereClause() + " ORDER BY created_at DESC, id DESC";
+        readJdbcTemplate.query(sql, (RowCallbackHandler) rs -> consumer.accept(projection.mapRow(rs)), filter.getArgs().toArray());
+    }
+
+    /**
+     * 游标分页查询：按 (created_at, id) 倒序，从游标之后取 limit 条，深分页与首页代价相同
+     */
+    public TodoPage findPage(TodoFilter filter, TodoCursor after, int limit) {
+        return findPage(filter, after, limit, TodoProjection.ALL);
+    }
+
+    public TodoPage findPage(TodoFilter filter, TodoCursor after, int limit, TodoProjection projection) {
+        // 生成下一页游标需要created_at
+        TodoProjection columns = projection.with(TodoProjection.Field.CREATED_AT);
+        StringBuilder sql = new StringBuilder("SELECT " + columns.columns(null) + " FROM " + source(filter)).append(filter.toWhereClause());
+        List<Object> args = new ArrayList<>(filter.getArgs());
+        if (after != null) {
+            sql.append(filter.isEmpty() ? " WHERE " : " AND ");
+            sql.append("(created_at, id) < (?, ?)");
+            args.add(Timestamp.valueOf(after.getCreatedAt()));
+            args.add(after.getId());
+        }
+        // 多取一条用于判断是否还有下一页
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+        args.add(limit + 1);
+
+        List<TodoItem> items = readJdbcTemplate.query(sql.toString(), (rs, rowNum) -> columns.mapRow(rs), args.toArray());
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items = new ArrayList<>(items.subList(0, limit));
+            TodoItem last = items.get(limit - 1);
+            nextCursor = new TodoCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new TodoPage(items, nextCursor);
+    }
+
+    /**
+     * 筛选条件对应的数据来源：待办事项表、归档表，或两者的并集
+     */
+    private String source(TodoFilter filter) {
+        if (filter.getScope() == TodoFilter.Scope.ARCHIVED) {
+            return archiveTable();
+        }
+        if (filter.getScope() == TodoFilter.Scope.ALL) {
+            return "(SELECT " + COLUMNS + " FROM todo_items UNION ALL SELECT " + COLUMNS + " FROM " + archiveTable() + ")";
+        }
+        return "todo_items";
+    }
+
+    private String archiveTable() {
+        return archiveSchema() + "todo_items_archive";
+    }
+
+    private String archiveSchema() {
+        return archiveDatabase.isEmpty() ? "" : "archive.";
+    }
+
+    /**
+     * 创建归档表，结构与todo_items相同（不含change_seq），另记录归档时间
+     */
+    public void createArchiveTable() {
+        if (!archiveDatabase.isEmpty()) {
+            // 单独的归档数据库同样使用WAL模式，该设置保存在数据库文件中
+            jdbcTemplate.queryForObject("PRAGMA archive.journal_mode = WAL", String.class);
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + archiveTable() + " (" +
+                "id INTEGER PRIMARY KEY, " +
+                "title VARCHAR(255) NOT NULL, " +
+                "description TEXT, " +
+                "priority INTEGER DEFAULT 1, " +
+                "status INTEGER DEFAULT 0, " +
+                "tags VARCHAR(500), " +
+                "image_paths TEXT, " +
+                "completed_at DATETIME, " +
+                "created_at DATETIME, " +
+                "updated_at DATETIME, " +
+                "version INTEGER NOT NULL DEFAULT 0, " +
+                "archived_at DATETIME NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + archiveSchema() + "idx_todo_items_archive_created_at " +
+                "ON todo_items_archive (created_at DESC, id DESC)");
+    }
+
+    /**
+     * 将完成或取消时间早于before的待办事项（状态2、3）最多limit条移入归档表，返回被归档的ID。
+     *
+     * 归档的记录从全文索引中移除，保留todo_tags关联以便按标签筛选归档数据；
+     * 同时写入墓碑记录，增量同步的客户端将其视为已从待办事项列表中删除。
+     * 归档表在单独的数据库文件中时，WAL模式下跨数据库的事务不保证整体原子性，
+     * 中断后可能同时存在于两张表中，下一次归档时以INSERT OR REPLACE覆盖并删除待办事项表中的记录。
+     */
+    @Transactional
+    public List<Long> archiveCompleted(LocalDateTime before, int limit) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM todo_items WHERE status IN (2, 3) AND COALESCE(completed_at, updated_at) < ? ORDER BY id LIMIT ?",
+                Long.class, Timestamp.valueOf(before), limit);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+
+        String idIn = " IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object> insertArgs = new ArrayList<>(ids.size() + 1);
+        insertArgs.add(now);
+        insertArgs.addAll(ids);
+        jdbcTemplate.update("INSERT OR REPLACE INTO " + archiveTable() + " (" + COLUMNS + ", archived_at) " +
+                "SELECT " + COLUMNS + ", ? FROM todo_items WHERE id" + idIn, insertArgs.toArray());
+        jdbcTemplate.update("DELETE FROM todo_search WHERE rowid" + idIn, ids.toArray());
+        jdbcTemplate.update("DELETE FROM todo_items WHERE id" + idIn, ids.toArray());
+
+        long changeSeq = nextChangeSeq(ids.size()) - ids.size() + 1;
+        List<Object[]> tombstoneArgs = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            tombstoneArgs.add(new Object[]{id, changeSeq++, now});
+            todoItemCache.evictAfterCommit(id);
+        }
+        jdbcTemplate.batchUpdate("INSERT OR REPLACE INTO todo_tombstones (todo_id, change_seq, deleted_at) VALUES (?, ?, ?)", tombstoneArgs);
+        facetIndex.removeAfterCommit(ids);
+        tableVersions.todosChanged();
+        return ids;
+    }
+
+    public TodoItem findArchivedById(Long id) {
+        String sql = "SELECT " + COLUMNS + " FROM " + archiveTable() + " WHERE id = ?";
+        List<TodoItem> items = readJdbcTemplate.query(sql, todoItemRowMapper, id);
+        return items.isEmpty() ? null : items.get(0);
+    }
+
+    /**
+     * 全文检索标题和描述，按bm25相关度排序（标题权重更高）
+     */
+    public List<TodoSearchHit> search(String matchQuery, int limit, int offset) {
+        String sql = "SELECT " + T_COLUMNS + ", bm25(todo_search, 10.0, 1.0) AS search_rank FROM todo_search " +
+                "JOIN todo_items t ON t.id = todo_search.rowid " +
+                "WHERE todo_search MATCH ? ORDER BY search_rank LIMIT ? OFFSET ?";
+        return readJdbcTemplate.query(sql, (rs, rowNum) ->
+                new TodoSearchHit(todoItemRowMapper.mapRow(rs, rowNum), rs.getDouble(TodoProjection.ALL.size() + 1)),
+                matchQuery, limit, offset);
+    }
+
+    public int countSearch(String matchQuery) {
+        String sql = "SELECT COUNT(*) FROM todo_search WHERE todo_search MATCH ?";
+        Integer count = readJdbcTemplate.queryForObject(sql, Integer.class, matchQuery);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * 通过GROUP BY统计各状态、优先级和标签下的数量
+     */
+    public TodoStats findStats() {
+        TodoStats stats = new TodoStats();
+        readJdbcTemplate.query("SELECT status, priority, COUNT(*) AS cnt FROM todo_items GROUP BY status, priority", rs -> {
+            long count = rs.getLong("cnt");
+            stats.getByStatus().merge(rs.getInt("status"), count, Long::sum);
+            stats.getByPriority().merge(rs.getInt("priority"), count, Long::sum);
+            stats.setTotal(stats.getTotal() + count);
+        });
+        // todo_tags中保留了已归档记录的关联，只统计待办事项表中的记录
+        readJdbcTemplate.query("SELECT g.name, COUNT(*) AS cnt FROM todo_tags tt " +
+                "JOIN todo_items t ON t.id = tt.todo_id " +
+                "JOIN tags g ON g.id = tt.tag_id GROUP BY g.name ORDER BY cnt DESC, g.name", rs -> {
+            stats.getByTag().put(rs.getString("name"), rs.getLong("cnt"));
+        });
+        return stats;
     }
 
     public List<TodoItem> findByStatus(Integer status) {
-        String sql = "SELECT * FROM todo_items WHERE status = ? ORDER BY created_at DESC";
-        return jdbcTemplate.query(sql, todoItemRowMapper, status);
+        String sql = "SELECT " + COLUMNS + " FROM todo_items WHERE status = ? ORDER BY created_at DESC";
+        return readJdbcTemplate.query(sql, todoItemRowMapper, status);
     }
 
     public List<TodoItem> findByPriority(Integer priority) {
-        String sql = "SELECT * FROM todo_items WHERE priority = ? ORDER BY created_at DESC";
-        return jdbcTemplate.query(sql, todoItemRowMapper, priority);
+        String sql = "SELECT " + COLUMNS + " FROM todo_items WHERE priority = ? ORDER BY created_at DESC";
+        return readJdbcTemplate.query(sql, todoItemRowMapper, priority);
     }
 
     public List<TodoItem> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        String sql = "SELECT * FROM todo_items WHERE created_at BETWEEN ? AND ? ORDER BY created_at DESC";
-        return jdbcTemplate.query(sql, todoItemRowMapper, 
+        String sql = "SELECT " + COLUMNS + " FROM todo_items WHERE created_at BETWEEN ? AND ? ORDER BY created_at DESC";
+        return readJdbcTemplate.query(sql, todoItemRowMapper, 
             Timestamp.valueOf(startDate), 
             Timestamp.valueOf(endDate));
     }
 
     public List<TodoItem> findByTag(String tag) {
-        String sql = "SELECT * FROM todo_items WHERE tags LIKE ? ORDER BY created_at DESC";
-        return jdbcTemplate.query(sql, todoItemRowMapper, "%" + tag + "%");
+        String sql = "SELECT " + T_COLUMNS + " FROM todo_items t " +
+                "JOIN todo_tags tt ON tt.todo_id = t.id " +
+                "JOIN tags g ON g.id = tt.tag_id " +
+                "WHERE g.name = ? ORDER BY t.created_at DESC";
+        return readJdbcTemplate.query(sql, todoItemRowMapper, tag);
     }
 }
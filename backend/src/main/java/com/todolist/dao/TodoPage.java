@@ -0,0 +1,27 @@
+package com.todolist.dao;
+
+import com.todolist.entity.TodoItem;
+
+import java.util.List;
+
+/**
+ * 一页查询结果，nextCursor 为空表示没有更多数据
+ */
+public class TodoPage {
+
+    private final List<TodoItem> items;
+    private final String nextCursor;
+
+    public TodoPage(List<TodoItem> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TodoItem> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,168 @@
+package com.todolist.dao;
+
+import com.todolist.entity.TodoItem;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 待办事项的字段投影，对应接口的 fields 参数（如 fields=id,title,status,tags）。
+ *
+ * 只查询选中字段对应的列并按下标读取，未选中的字段在TodoItem中保持为空，序列化时也不会输出。
+ * id始终包含在内。
+ */
+public final class TodoProjection {
+
+    public enum Field {
+        ID("id", "id"),
+        TITLE("title", "title"),
+        DESCRIPTION("description", "description"),
+        PRIORITY("priority", "priority"),
+        STATUS("status", "status"),
+        TAGS("tags", "tags"),
+        IMAGE_PATHS("imagePaths", "image_paths"),
+        COMPLETED_AT("completedAt", "completed_at"),
+        CREATED_AT("createdAt", "created_at"),
+        UPDATED_AT("updatedAt", "updated_at"),
+        VERSION("version", "version");
+
+        private final String property;
+        private final String column;
+
+        Field(String property, String column) {
+            this.property = property;
+            this.column = column;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+    }
+
+    public static final TodoProjection ALL = new TodoProjection(EnumSet.allOf(Field.class));
+
+    // 按枚举顺序排列，查询列与读取下标一一对应
+    private final Field[] fields;
+    private final EnumSet<Field> fieldSet;
+
+    private TodoProjection(EnumSet<Field> fieldSet) {
+        this.fieldSet = fieldSet;
+        this.fields = fieldSet.toArray(new Field[0]);
+    }
+
+    /**
+     * 解析逗号分隔的字段名，为空时返回全部字段
+     */
+    public static TodoProjection parse(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return ALL;
+        }
+        EnumSet<Field> selected = EnumSet.of(Field.ID);
+        for (String name : fields.split(",")) {
+            String property = name.trim();
+            if (property.isEmpty()) {
+                continue;
+            }
+            Field field = null;
+            for (Field candidate : Field.values()) {
+                if (candidate.property.equals(property)) {
+                    field = candidate;
+                    break;
+                }
+            }
+            if (field == null) {
+                throw new IllegalArgumentException("未知字段: " + property);
+            }
+            selected.add(field);
+        }
+        return selected.size() == Field.values().length ? ALL : new TodoProjection(selected);
+    }
+
+    /**
+     * 返回额外包含指定字段的投影（如游标分页需要created_at）
+     */
+    public TodoProjection with(Field field) {
+        if (fieldSet.contains(field)) {
+            return this;
+        }
+        EnumSet<Field> selected = EnumSet.copyOf(fieldSet);
+        selected.add(field);
+        return selected.size() == Field.values().length ? ALL : new TodoProjection(selected);
+    }
+
+    public boolean isAll() {
+        return this == ALL;
+    }
+
+    public boolean contains(Field field) {
+        return fieldSet.contains(field);
+    }
+
+    /**
+     * 选中字段的属性名，用于序列化时过滤
+     */
+    public Set<String> getPropertyNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (Field field : fields) {
+            names.add(field.property);
+        }
+        return names;
+    }
+
+    /**
+     * 查询列表达式，alias不为空时加上表别名前缀
+     */
+    public String columns(String alias) {
+        List<String> columns = new ArrayList<>(fields.length);
+        for (Field field : fields) {
+            columns.add(alias != null ? alias + "." + field.column : field.column);
+        }
+        return String.join(", ", columns);
+    }
+
+    /**
+     * 查询的列数，紧随其后的列可由调用方自行读取
+     */
+    public int size() {
+        return fields.length;
+    }
+
+    /**
+     * 按下标读取当前行；tags和image_paths只保存原始JSON，由TodoItem在第一次访问时解析
+     */
+    public TodoItem mapRow(ResultSet rs) throws SQLException {
+        TodoItem item = new TodoItem();
+        for (int i = 0; i < fields.length; i++) {
+            int index = i + 1;
+            switch (fields[i]) {
+                case ID -> item.setId(rs.getLong(index));
+                case TITLE -> item.setTitle(rs.getString(index));
+                case DESCRIPTION -> item.setDescription(rs.getString(index));
+                case PRIORITY -> item.setPriority(rs.getInt(index));
+                case STATUS -> item.setStatus(rs.getInt(index));
+                case TAGS -> item.setRawTags(rs.getString(index));
+                case IMAGE_PATHS -> item.setRawImagePaths(rs.getString(index));
+                case COMPLETED_AT -> {
+                    Timestamp completedAt = rs.getTimestamp(index);
+                    if (completedAt != null) {
+                        item.setCompletedAt(completedAt.toLocalDateTime());
+                    }
+                }
+                case CREATED_AT -> item.setCreatedAt(rs.getTimestamp(index).toLocalDateTime());
+                case UPDATED_AT -> item.setUpdatedAt(rs.getTimestamp(index).toLocalDateTime());
+                case VERSION -> item.setVersion(rs.getLong(index));
+            }
+        }
+        return item;
+    }
+}
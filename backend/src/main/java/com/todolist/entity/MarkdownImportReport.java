@@ -0,0 +1,158 @@
+package com.todolist.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MarkdownImportReport {
+    private int files; // 解析的Markdown文件数
+    private int skippedFiles; // 不是Markdown而跳过的文件数（如笔记库中的图片、配置文件）
+    private long lines; // 读取的总行数
+    private int tasks; // 解析成功的任务行数
+    private int imported; // 写入的待办事项数
+    private int errorCount; // 无效的任务行数
+    private List<LineError> errors = new ArrayList<>(); // 无效任务行的明细，最多返回前若干条
+    private long elapsedMillis;
+    private String failure; // 导入中途失败的原因，成功时为null
+    private String failedFile; // 失败时未写入的第一个任务所在的文件，按上传（及压缩包中）的顺序，之前的任务都已写入
+    private int failedLine; // 该任务的行号，文件中的任务都未写入时为0
+
+    // Getters and Setters
+    public int getFiles() {
+        return files;
+    }
+
+    public void setFiles(int files) {
+        this.files = files;
+    }
+
+    public int getSkippedFiles() {
+        return skippedFiles;
+    }
+
+    public void setSkippedFiles(int skippedFiles) {
+        this.skippedFiles = skippedFiles;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public void setLines(long lines) {
+        this.lines = lines;
+    }
+
+    public int getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(int tasks) {
+        this.tasks = tasks;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(int errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    public List<LineError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<LineError> errors) {
+        this.errors = errors;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public void setFailure(String failure) {
+        this.failure = failure;
+    }
+
+    public String getFailedFile() {
+        return failedFile;
+    }
+
+    public void setFailedFile(String failedFile) {
+        this.failedFile = failedFile;
+    }
+
+    public int getFailedLine() {
+        return failedLine;
+    }
+
+    public void setFailedLine(int failedLine) {
+        this.failedLine = failedLine;
+    }
+
+    /**
+     * 一行无效的任务：所在文件、行号（从1开始，读取文件失败时为0）、原始内容和原因
+     */
+    public static class LineError {
+        private String file;
+        private int line;
+        private String content;
+        private String message;
+
+        public LineError() {}
+
+        public LineError(String file, int line, String content, String message) {
+            this.file = file;
+            this.line = line;
+            this.content = content;
+            this.message = message;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public void setLine(int line) {
+            this.line = line;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public void setContent(String content) {
+            this.content = content;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.todolist.entity;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import java.time.LocalDateTime;
 
 public class Tag {
@@ -8,7 +7,7 @@ public class Tag {
     private String name;
     private String color;
     
-    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    // 输出格式 yyyy-MM-dd HH:mm:ss，见TodoTimeModule
     private LocalDateTime createdAt;
 
     // 构造函数
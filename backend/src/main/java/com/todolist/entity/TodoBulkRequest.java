@@ -0,0 +1,71 @@
+package com.todolist.entity;
+
+import java.util.List;
+
+/**
+ * 批量操作请求：对ids中的待办事项或filter（与列表接口的q参数语法相同）匹配的待办事项执行action，
+ * ids和filter同时指定时取交集
+ */
+public class TodoBulkRequest {
+    public static final String SET_STATUS = "setStatus";
+    public static final String SET_PRIORITY = "setPriority";
+    public static final String ADD_TAG = "addTag";
+    public static final String REMOVE_TAG = "removeTag";
+    public static final String DELETE = "delete";
+
+    private String action;
+    private List<Long> ids;
+    private String filter;
+    private Integer status; // setStatus时的目标状态
+    private Integer priority; // setPriority时的目标优先级
+    private String tag; // addTag、removeTag时的标签名
+
+    // Getters and Setters
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    public void setFilter(String filter) {
+        this.filter = filter;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+}
@@ -1,12 +1,16 @@
 package com.todolist.entity;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import com.todolist.config.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.todolist.util.JsonStringArray;
 import java.time.LocalDateTime;
 import java.util.List;
 
+@JsonFilter(TodoItem.FIELDS_FILTER)
 public class TodoItem {
+    // 按fields参数过滤输出字段的过滤器，未指定时输出全部字段
+    public static final String FIELDS_FILTER = "todoFields";
+
     private Long id;
     private String title;
     private String description;
@@ -14,17 +18,22 @@ public class TodoItem {
     private Integer status; // 0: 待办, 1: 进行中, 2: 已完成, 3: 取消
     private List<String> tags;
     private List<String> imagePaths;
+
+    // 从数据库读出但尚未解析的JSON，第一次调用getter（包括序列化时）才解析
+    @JsonIgnore
+    private String rawTags;
+    @JsonIgnore
+    private String rawImagePaths;
     
-    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
-    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    // 时间字段的读写格式（yyyy-MM-dd HH:mm:ss）由TodoTimeModule统一处理
     private LocalDateTime completedAt;
     
-    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime createdAt;
     
-    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime updatedAt;
 
+    private Long version; // 乐观锁版本号，每次更新加1
+
     // 构造函数
     public TodoItem() {}
 
@@ -79,19 +88,57 @@ public class TodoItem {
     }
 
     public List<String> getTags() {
+        if (rawTags != null) {
+            tags = JsonStringArray.parse(rawTags);
+            rawTags = null;
+        }
         return tags;
     }
 
     public void setTags(List<String> tags) {
         this.tags = tags;
+        this.rawTags = null;
     }
 
     public List<String> getImagePaths() {
+        if (rawImagePaths != null) {
+            imagePaths = JsonStringArray.parse(rawImagePaths);
+            rawImagePaths = null;
+        }
         return imagePaths;
     }
 
     public void setImagePaths(List<String> imagePaths) {
         this.imagePaths = imagePaths;
+        this.rawImagePaths = null;
+    }
+
+    /**
+     * 尚未解析的标签JSON，已解析或未设置时返回null
+     */
+    @JsonIgnore
+    public String getRawTags() {
+        return rawTags;
+    }
+
+    /**
+     * 设置数据库中的标签JSON，延迟到getTags时解析；null视为空列表
+     */
+    @JsonIgnore
+    public void setRawTags(String rawTags) {
+        this.tags = null;
+        this.rawTags = rawTags != null ? rawTags : "";
+    }
+
+    @JsonIgnore
+    public String getRawImagePaths() {
+        return rawImagePaths;
+    }
+
+    @JsonIgnore
+    public void setRawImagePaths(String rawImagePaths) {
+        this.imagePaths = null;
+        this.rawImagePaths = rawImagePaths != null ? rawImagePaths : "";
     }
 
     public LocalDateTime getCompletedAt() {
@@ -118,6 +165,14 @@ public class TodoItem {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // 优先级枚举
     public enum Priority {
         LOW(1, "低"),
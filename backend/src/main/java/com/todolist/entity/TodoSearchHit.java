@@ -0,0 +1,49 @@
+package com.todolist.entity;
+
+public class TodoSearchHit {
+    private TodoItem item;
+    private Double rank; // bm25得分，越小越相关
+    private String highlightedTitle; // 命中关键词以<mark>标记，其余内容已做HTML转义
+    private String descriptionSnippet;
+
+    // 构造函数
+    public TodoSearchHit() {}
+
+    public TodoSearchHit(TodoItem item, Double rank) {
+        this.item = item;
+        this.rank = rank;
+    }
+
+    // Getters and Setters
+    public TodoItem getItem() {
+        return item;
+    }
+
+    public void setItem(TodoItem item) {
+        this.item = item;
+    }
+
+    public Double getRank() {
+        return rank;
+    }
+
+    public void setRank(Double rank) {
+        this.rank = rank;
+    }
+
+    public String getHighlightedTitle() {
+        return highlightedTitle;
+    }
+
+    public void setHighlightedTitle(String highlightedTitle) {
+        this.highlightedTitle = highlightedTitle;
+    }
+
+    public String getDescriptionSnippet() {
+        return descriptionSnippet;
+    }
+
+    public void setDescriptionSnippet(String descriptionSnippet) {
+        this.descriptionSnippet = descriptionSnippet;
+    }
+}
@@ -0,0 +1,53 @@
+package com.todolist.entity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class TodoStats {
+    private long total;
+    private Map<Integer, Long> byStatus = new LinkedHashMap<>(); // 状态 -> 数量
+    private Map<Integer, Long> byPriority = new LinkedHashMap<>(); // 优先级 -> 数量
+    private Map<String, Long> byTag = new LinkedHashMap<>(); // 标签名 -> 数量，按数量降序
+    private double completionRate; // 已完成数量占总数的百分比
+
+    // Getters and Setters
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<Integer, Long> getByStatus() {
+        return byStatus;
+    }
+
+    public void setByStatus(Map<Integer, Long> byStatus) {
+        this.byStatus = byStatus;
+    }
+
+    public Map<Integer, Long> getByPriority() {
+        return byPriority;
+    }
+
+    public void setByPriority(Map<Integer, Long> byPriority) {
+        this.byPriority = byPriority;
+    }
+
+    public Map<String, Long> getByTag() {
+        return byTag;
+    }
+
+    public void setByTag(Map<String, Long> byTag) {
+        this.byTag = byTag;
+    }
+
+    public double getCompletionRate() {
+        return completionRate;
+    }
+
+    public void setCompletionRate(double completionRate) {
+        this.completionRate = completionRate;
+    }
+}
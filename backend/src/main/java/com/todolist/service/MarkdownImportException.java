@@ -0,0 +1,20 @@
+package com.todolist.service;
+
+import com.todolist.entity.MarkdownImportReport;
+
+/**
+ * 导入中途失败，report中为已完成的部分：已写入的条数，以及未写入的第一个任务所在的文件和行号
+ */
+public class MarkdownImportException extends RuntimeException {
+
+    private final MarkdownImportReport report;
+
+    public MarkdownImportException(MarkdownImportReport report, Throwable cause) {
+        super(cause.getMessage(), cause);
+        this.report = report;
+    }
+
+    public MarkdownImportReport getReport() {
+        return report;
+    }
+}
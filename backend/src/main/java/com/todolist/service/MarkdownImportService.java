@@ -0,0 +1,339 @@
+package com.todolist.service;
+
+import com.todolist.entity.MarkdownImportReport;
+import com.todolist.entity.TodoItem;
+import com.todolist.util.ObsidianTaskParser;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 从Markdown文件批量导入Obsidian Tasks格式的任务。可以上传多个 .md 文件（如选择整个笔记库目录），
+ * 也可以上传笔记库的zip压缩包。
+ *
+ * 每个文件按行流式读取解析，多个文件在线程池中并行解析。解析结果按文件的提交顺序取回，攒够 BATCH_SIZE 条即确认
+ * 其中的标签并写入，每批一个事务；同时在解析或等待写入的文件最多 import.max-in-flight 个，
+ * 内存中只保留这些文件的内容和解析结果以及一批未写入的待办事项，不随导入总量增长。
+ * 不是任务的行（标题、正文、代码块等）忽略，无效的任务行记录到错误报告中，不影响其他行的导入；
+ * 中途失败（如读取失败、压缩包超出大小上限）时已写入的批次保留，抛出的MarkdownImportException中带有已完成部分的报告，
+ * 给出未写入的第一个任务所在的文件和行号：每批按顺序写入，之前的任务都已写入，从该处重新导入不会重复。
+ */
+@Service
+public class MarkdownImportService {
+
+    // 错误报告中最多返回的明细条数，超出的只计数
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    // zip压缩包解压后的总大小上限
+    private static final long MAX_UNZIPPED_BYTES = 256L * 1024 * 1024;
+    // 每批写入的待办事项数
+    private static final int BATCH_SIZE = 5000;
+
+    @Value("${import.parse-threads:4}")
+    private int parseThreads;
+
+    @Value("${import.max-in-flight:8}")
+    private int maxInFlight;
+
+    @Autowired
+    private TodoItemService todoItemService;
+
+    private ExecutorService parsers;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger count = new AtomicInteger();
+        parsers = Executors.newFixedThreadPool(Math.max(1, parseThreads), runnable -> {
+            Thread thread = new Thread(runnable, "markdown-import-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parsers.shutdownNow();
+    }
+
+    public MarkdownImportReport importFiles(List<MultipartFile> files) throws IOException {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("请选择要导入的Markdown文件");
+        }
+        long start = System.currentTimeMillis();
+        MarkdownImportReport report = new MarkdownImportReport();
+        ImportRun run = new ImportRun(report);
+
+        // 提交解析任务的同时继续读取后面的文件（包括逐个解压zip中的条目），并写入已解析完的文件
+        try {
+            for (MultipartFile file : files) {
+                String name = file.getOriginalFilename() != null ? file.getOriginalFilename() : file.getName();
+                run.reading = name;
+                if (name.toLowerCase(Locale.ROOT).endsWith(".zip")) {
+                    submitZipEntries(file, run, report);
+                } else if (isMarkdown(name) && !isHidden(name)) {
+                    run.submit(name, () -> parse(name, file.getInputStream()));
+                } else {
+                    report.setSkippedFiles(report.getSkippedFiles() + 1);
+                }
+            }
+            if (run.submitted == 0) {
+                throw new IllegalArgumentException("没有可导入的Markdown文件（支持 .md、.markdown 文件及包含它们的 .zip 压缩包）");
+            }
+            run.finish();
+        } catch (IOException | RuntimeException e) {
+            if (run.submitted == 0) {
+                // 还没有开始导入，如没有可导入的文件
+                throw e;
+            }
+            run.fail(e);
+            report.setElapsedMillis(System.currentTimeMillis() - start);
+            throw new MarkdownImportException(report, e);
+        } finally {
+            run.cancel();
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        return report;
+    }
+
+    /**
+     * 逐个解压条目并提交解析。同一时间只有不超过 import.max-in-flight 个条目的内容在内存中
+     */
+    private void submitZipEntries(MultipartFile file, ImportRun run, MarkdownImportReport report) throws IOException {
+        long unzipped = 0;
+        try (ZipInputStream zip = new ZipInputStream(file.getInputStream(), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (!isMarkdown(name) || isHidden(name)) {
+                    report.setSkippedFiles(report.getSkippedFiles() + 1);
+                    continue;
+                }
+                // 先等出空位再读取条目内容，避免读出的内容排队占用内存
+                run.awaitSlot();
+                run.reading = name;
+                byte[] content = zip.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, MAX_UNZIPPED_BYTES - unzipped + 1));
+                unzipped += content.length;
+                if (unzipped > MAX_UNZIPPED_BYTES) {
+                    throw new IllegalArgumentException("压缩包中的Markdown文件总大小超过 " + MAX_UNZIPPED_BYTES / 1024 / 1024 + "MB");
+                }
+                run.submit(name, () -> parse(name, new ByteArrayInputStream(content)));
+            }
+        }
+    }
+
+    /**
+     * 逐行解析一个文件，代码块（``` 或 ~~~ 包围）中的内容不作为任务
+     */
+    private static ParsedFile parse(String name, InputStream in) {
+        ParsedFile result = new ParsedFile();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            boolean inCodeBlock = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                result.lines++;
+                // 去掉文件开头的BOM
+                if (result.lines == 1 && line.startsWith("\uFEFF")) {
+                    line = line.substring(1);
+                }
+                String trimmed = line.trim();
+                if (trimmed.startsWith("```") || trimmed.startsWith("~~~")) {
+                    inCodeBlock = !inCodeBlock;
+                    continue;
+                }
+                if (inCodeBlock) {
+                    continue;
+                }
+                try {
+                    TodoItem item = ObsidianTaskParser.parse(line);
+                    if (item != null) {
+                        result.items.add(new ParsedTask(item, name, result.lines));
+                    }
+                } catch (IllegalArgumentException e) {
+                    result.errors.add(new MarkdownImportReport.LineError(name, result.lines, line, e.getMessage()));
+                }
+            }
+        } catch (IOException e) {
+            result.errors.add(new MarkdownImportReport.LineError(name, 0, null, "读取文件失败: " + e.getMessage()));
+        }
+        return result;
+    }
+
+    private static ParsedFile await(Future<ParsedFile> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("导入被中断", e);
+        } catch (ExecutionException e) {
+            throw new IOException("解析文件失败: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static boolean isMarkdown(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".md") || lower.endsWith(".markdown");
+    }
+
+    /**
+     * 笔记库中的隐藏目录和文件（.obsidian、.trash 等）以及macOS压缩时附带的 __MACOSX 目录。
+     * 选择目录上传时文件名中带有相对路径，同样适用
+     */
+    private static boolean isHidden(String name) {
+        for (String segment : name.split("[/\\\\]")) {
+            if (segment.startsWith(".") || segment.equals("__MACOSX")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 一次导入的进度：按提交顺序取回各文件的解析结果，累计到报告中，攒够一批即写入
+     */
+    private class ImportRun {
+        private final MarkdownImportReport report;
+        private final Deque<SubmittedFile> inFlight = new ArrayDeque<>();
+        // 已取回、尚未写入的任务，按顺序排列
+        private final List<ParsedTask> pending = new ArrayList<>();
+        private int submitted;
+        // 正在读取的文件和正在取回结果的文件，用于失败时定位
+        private String reading;
+        private String collecting;
+
+        ImportRun(MarkdownImportReport report) {
+            this.report = report;
+        }
+
+        void submit(String name, Callable<ParsedFile> task) throws IOException {
+            awaitSlot();
+            inFlight.add(new SubmittedFile(name, parsers.submit(task)));
+            submitted++;
+        }
+
+        /**
+         * 同时进行的文件达到上限时，等待最早提交的文件解析完成并取回其结果
+         */
+        void awaitSlot() throws IOException {
+            while (inFlight.size() >= Math.max(1, maxInFlight)) {
+                collect();
+            }
+        }
+
+        void finish() throws IOException {
+            while (!inFlight.isEmpty()) {
+                collect();
+            }
+            flush(true);
+        }
+
+        void cancel() {
+            for (SubmittedFile file : inFlight) {
+                file.future.cancel(true);
+            }
+        }
+
+        /**
+         * 记录失败原因和未写入的第一个任务的位置：已取回未写入的任务，否则是最早的未完成文件
+         */
+        void fail(Exception e) {
+            report.setFailure(e.getMessage());
+            if (!pending.isEmpty()) {
+                report.setFailedFile(pending.get(0).file);
+                report.setFailedLine(pending.get(0).line);
+            } else if (collecting != null) {
+                report.setFailedFile(collecting);
+            } else if (!inFlight.isEmpty()) {
+                report.setFailedFile(inFlight.peekFirst().name);
+            } else {
+                report.setFailedFile(reading);
+            }
+        }
+
+        private void collect() throws IOException {
+            SubmittedFile submittedFile = inFlight.poll();
+            collecting = submittedFile.name;
+            ParsedFile file = await(submittedFile.future);
+            report.setFiles(report.getFiles() + 1);
+            report.setLines(report.getLines() + file.lines);
+            report.setTasks(report.getTasks() + file.items.size());
+            report.setErrorCount(report.getErrorCount() + file.errors.size());
+            for (MarkdownImportReport.LineError error : file.errors) {
+                if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+                    report.getErrors().add(error);
+                }
+            }
+            pending.addAll(file.items);
+            collecting = null;
+            flush(false);
+        }
+
+        /**
+         * 每 BATCH_SIZE 条调用一次导入，每次一个事务；all为false时不足一批的留到之后。写入成功后才从pending中移除
+         */
+        private void flush(boolean all) {
+            while (pending.size() >= BATCH_SIZE || (all && !pending.isEmpty())) {
+                int size = Math.min(BATCH_SIZE, pending.size());
+                List<TodoItem> batch = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    batch.add(pending.get(i).item);
+                }
+                report.setImported(report.getImported() + todoItemService.importTodoItems(batch, ObsidianTaskParser::tagColor));
+                pending.subList(0, size).clear();
+            }
+        }
+    }
+
+    private static class SubmittedFile {
+        private final String name;
+        private final Future<ParsedFile> future;
+
+        SubmittedFile(String name, Future<ParsedFile> future) {
+            this.name = name;
+            this.future = future;
+        }
+    }
+
+    private static class ParsedTask {
+        private final TodoItem item;
+        private final String file;
+        private final int line;
+
+        ParsedTask(TodoItem item, String file, int line) {
+            this.item = item;
+            this.file = file;
+            this.line = line;
+        }
+    }
+
+    private static class ParsedFile {
+        private final List<ParsedTask> items = new ArrayList<>();
+        private final List<MarkdownImportReport.LineError> errors = new ArrayList<>();
+        private int lines;
+    }
+}
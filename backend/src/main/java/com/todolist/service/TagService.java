@@ -1,67 +1,307 @@
 package com.todolist.service;
 
+import com.todolist.dao.TableVersions;
 import com.todolist.dao.TagDao;
+import com.todolist.dao.TodoFacetIndex;
+import com.todolist.dao.TodoItemDao;
 import com.todolist.entity.Tag;
+import com.todolist.entity.TodoBulkRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
+/**
+ * 标签服务。所有标签以不可变快照的形式保存在内存中，按ID和规范化后的名称（去除前后空格、忽略大小写）建立索引；
+ * 读操作直接读取快照不加锁，写操作在写入数据库后以写时复制的方式整体替换快照。
+ * 快照中的Tag对象是共享的，调用方不应修改。
+ */
 @Service
 public class TagService {
 
+    private static final String DEFAULT_COLOR = "#1890ff";
+
     @Autowired
     private TagDao tagDao;
 
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Autowired
+    private TodoItemDao todoItemDao;
+
+    @Autowired
+    private TodoFacetIndex facetIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TodoEventPublisher eventPublisher;
+
+    private volatile TagSnapshot snapshot;
+
+    // 锁内会访问数据库，使用ReentrantLock而不是synchronized，虚拟线程等待数据库时不会占住载体线程
+    private final ReentrantLock writeLock = new ReentrantLock();
+
     public List<Tag> getAllTags() {
-        return tagDao.findAll();
+        return snapshot().sorted;
     }
 
     public Tag getTagById(Long id) {
-        return tagDao.findById(id);
+        return snapshot().byId.get(id);
     }
 
     public Tag createTag(Tag tag) {
-        // 检查标签名是否已存在（忽略大小写和前后空格）
-        String trimmedName = tag.getName().trim();
-        Tag existingTag = tagDao.findByName(trimmedName);
-        if (existingTag != null) {
-            // 如果标签已存在，直接返回现有标签而不是抛出异常
-            return existingTag;
+        writeLock.lock();
+        try {
+            // 检查标签名是否已存在（忽略大小写和前后空格）
+            String trimmedName = tag.getName().trim();
+            Tag existingTag = snapshot().byName.get(normalize(trimmedName));
+            if (existingTag != null) {
+                // 如果标签已存在，直接返回现有标签而不是抛出异常
+                return existingTag;
+            }
+
+            tag.setName(trimmedName);
+            tag.setCreatedAt(LocalDateTime.now());
+            Tag savedTag = tagDao.save(tag);
+            replaceSnapshot(savedTag, null);
+            eventPublisher.publish(TodoEventPublisher.TAG_CREATED, savedTag);
+            return savedTag;
+        } finally {
+            writeLock.unlock();
         }
-        
-        tag.setName(trimmedName);
-        tag.setCreatedAt(LocalDateTime.now());
-        return tagDao.save(tag);
     }
 
     public Tag updateTag(Long id, Tag tag) {
-        Tag existingTag = tagDao.findById(id);
-        if (existingTag == null) {
-            throw new RuntimeException("标签不存在，ID: " + id);
-        }
-        
-        // 检查新标签名是否与其他标签重复
-        Tag tagWithSameName = tagDao.findByName(tag.getName());
-        if (tagWithSameName != null && !tagWithSameName.getId().equals(id)) {
-            throw new RuntimeException("标签名已存在: " + tag.getName());
+        writeLock.lock();
+        try {
+            Tag existingTag = snapshot().byId.get(id);
+            if (existingTag == null) {
+                throw new RuntimeException("标签不存在，ID: " + id);
+            }
+
+            if (tag.getName() == null || tag.getName().trim().isEmpty()) {
+                throw new RuntimeException("标签名不能为空");
+            }
+
+            // 检查新标签名是否与其他标签重复
+            Tag tagWithSameName = snapshot().byName.get(normalize(tag.getName()));
+            if (tagWithSameName != null && !tagWithSameName.getId().equals(id)) {
+                throw new RuntimeException("标签名已存在: " + tag.getName());
+            }
+
+            tag.setId(id);
+            tag.setCreatedAt(existingTag.getCreatedAt());
+            boolean renamed = !tag.getName().equals(existingTag.getName());
+            // 标签表和待办事项中的标签名在同一事务中修改，提交后再替换快照
+            List<Long> todoIds = new ArrayList<>();
+            Tag savedTag = transactionTemplate.execute(status -> {
+                Tag saved = tagDao.save(tag);
+                if (renamed) {
+                    todoIds.addAll(todoItemDao.renameTagInTodos(id, existingTag.getName(), saved.getName()));
+                    facetIndex.renameTagAfterCommit(existingTag.getName(), saved.getName());
+                }
+                return saved;
+            });
+            replaceSnapshot(savedTag, existingTag);
+            eventPublisher.publish(TodoEventPublisher.TAG_UPDATED, savedTag);
+            if (!todoIds.isEmpty()) {
+                eventPublisher.publish(TodoEventPublisher.TODO_BULK, Map.of("action", "renameTag", "ids", todoIds));
+            }
+            return savedTag;
+        } finally {
+            writeLock.unlock();
         }
-        
-        tag.setId(id);
-        tag.setCreatedAt(existingTag.getCreatedAt());
-        return tagDao.save(tag);
     }
 
     public void deleteTag(Long id) {
-        Tag existingTag = tagDao.findById(id);
-        if (existingTag == null) {
-            throw new RuntimeException("标签不存在，ID: " + id);
+        writeLock.lock();
+        try {
+            Tag existingTag = snapshot().byId.get(id);
+            if (existingTag == null) {
+                throw new RuntimeException("标签不存在，ID: " + id);
+            }
+            List<Long> todoIds = transactionTemplate.execute(status -> {
+                List<Long> ids = todoItemDao.removeTagFromTodos(id, existingTag.getName());
+                tagDao.deleteById(id);
+                facetIndex.dropTagAfterCommit(existingTag.getName());
+                return ids;
+            });
+            replaceSnapshot(null, existingTag);
+            eventPublisher.publish(TodoEventPublisher.TAG_DELETED, Map.of("id", id));
+            if (!todoIds.isEmpty()) {
+                eventPublisher.publish(TodoEventPublisher.TODO_BULK, Map.of("action", TodoBulkRequest.REMOVE_TAG, "ids", todoIds));
+            }
+        } finally {
+            writeLock.unlock();
         }
-        tagDao.deleteById(id);
     }
 
     public Tag getTagByName(String name) {
-        return tagDao.findByName(name);
+        return name == null ? null : snapshot().byName.get(normalize(name));
+    }
+
+    /**
+     * 确保给定名称的标签都存在，不存在的以默认颜色创建。已存在的标签只查内存快照，不访问数据库。
+     * 新标签立即在各自的事务中写入，不属于之后待办事项的写事务：待办事项写入失败时已创建的标签保留，
+     * 与在标签管理中新建、尚未使用的标签相同
+     */
+    public void ensureTags(Collection<String> names) {
+        ensureTags(names, name -> DEFAULT_COLOR);
+    }
+
+    /**
+     * 同 {@link #ensureTags(Collection)}，新建的标签使用colorOf按名称给出的颜色
+     */
+    public void ensureTags(Collection<String> names, Function<String, String> colorOf) {
+        if (names == null || names.isEmpty()) {
+            return;
+        }
+        TagSnapshot current = snapshot();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String name : names) {
+            if (name != null && !name.trim().isEmpty() && !current.byName.containsKey(normalize(name))) {
+                missing.add(name.trim());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        writeLock.lock();
+        try {
+            List<Tag> all = new ArrayList<>(snapshot().sorted);
+            Map<String, Tag> byName = new HashMap<>(snapshot().byName);
+            List<Tag> created = new ArrayList<>();
+            for (String name : missing) {
+                if (byName.containsKey(normalize(name))) {
+                    continue;
+                }
+                Tag tag = new Tag(name, colorOf.apply(name));
+                Tag savedTag = tagDao.save(tag);
+                all.add(savedTag);
+                byName.put(normalize(name), savedTag);
+                created.add(savedTag);
+            }
+            setSnapshot(new TagSnapshot(all));
+            for (Tag tag : created) {
+                eventPublisher.publish(TodoEventPublisher.TAG_CREATED, tag);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 确保标签存在并返回标签表中对应的名称：与已有标签只差大小写或前后空格的名称换成已有标签的名称，
+     * 去除空名称和重复项。待办事项的tags需先换成这些名称再写入，todo_tags按名称精确关联才能找到标签。
+     * names为null时返回null
+     */
+    public List<String> resolveTags(Collection<String> names) {
+        if (names == null) {
+            return null;
+        }
+        ensureTags(names);
+        TagSnapshot current = snapshot();
+        Set<String> resolved = new LinkedHashSet<>();
+        for (String name : names) {
+            if (name == null || name.trim().isEmpty()) {
+                continue;
+            }
+            Tag tag = current.byName.get(normalize(name));
+            // 标签刚被并发删除时保留原名称，写入时不会建立关联
+            resolved.add(tag != null ? tag.getName() : name.trim());
+        }
+        return new ArrayList<>(resolved);
+    }
+
+    /**
+     * 从数据库重新加载快照，用于标签表被绕过本服务修改之后（如启动时的数据迁移）
+     */
+    public void reloadTags() {
+        writeLock.lock();
+        try {
+            setSnapshot(new TagSnapshot(tagDao.findAll()));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private TagSnapshot snapshot() {
+        TagSnapshot current = snapshot;
+        if (current == null) {
+            writeLock.lock();
+            try {
+                if (snapshot == null) {
+                    snapshot = new TagSnapshot(tagDao.findAll());
+                }
+                current = snapshot;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 基于当前快照生成新快照：移除removed，加入added
+     */
+    private void replaceSnapshot(Tag added, Tag removed) {
+        List<Tag> all = new ArrayList<>(snapshot().sorted.size() + 1);
+        for (Tag tag : snapshot().sorted) {
+            if (removed == null || !tag.getId().equals(removed.getId())) {
+                all.add(tag);
+            }
+        }
+        if (added != null) {
+            all.add(added);
+        }
+        setSnapshot(new TagSnapshot(all));
+    }
+
+    /**
+     * 替换快照后再递增标签表版本，保证取到新ETag时读到的是新快照
+     */
+    private void setSnapshot(TagSnapshot newSnapshot) {
+        snapshot = newSnapshot;
+        tableVersions.tagsChanged();
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class TagSnapshot {
+        private final List<Tag> sorted;
+        private final Map<Long, Tag> byId;
+        private final Map<String, Tag> byName;
+
+        TagSnapshot(List<Tag> tags) {
+            List<Tag> copy = new ArrayList<>(tags);
+            copy.sort(Comparator.comparing(Tag::getName));
+            Map<Long, Tag> idIndex = new HashMap<>();
+            Map<String, Tag> nameIndex = new HashMap<>();
+            for (Tag tag : copy) {
+                idIndex.put(tag.getId(), tag);
+                nameIndex.putIfAbsent(normalize(tag.getName()), tag);
+            }
+            this.sorted = List.copyOf(copy);
+            this.byId = Map.copyOf(idIndex);
+            this.byName = Map.copyOf(nameIndex);
+        }
     }
 }
@@ -0,0 +1,79 @@
+package com.todolist.service;
+
+import com.todolist.dao.TodoItemDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 定期将已完成或已取消超过指定天数的待办事项移入归档表，使待办事项表及其索引只保留活跃数据。
+ *
+ * 每批在一个短事务内完成，避免长时间占用唯一的写连接。归档后的记录可通过 includeArchived=true
+ * 或 /api/todos/archive 查询。
+ */
+@Service
+public class TodoArchiver {
+
+    @Value("${archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${archive.after-days:30}")
+    private int afterDays;
+
+    @Value("${archive.batch-size:1000}")
+    private int batchSize;
+
+    @Autowired
+    private TodoItemDao todoItemDao;
+
+    @Autowired
+    private TodoEventPublisher eventPublisher;
+
+    // 定时任务与手动触发不并发执行
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Scheduled(initialDelayString = "${archive.interval-minutes:60}",
+            fixedDelayString = "${archive.interval-minutes:60}", timeUnit = TimeUnit.MINUTES)
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int count = archive();
+            if (count > 0) {
+                System.out.println("已归档待办事项: " + count);
+            }
+        } catch (Exception e) {
+            System.err.println("归档待办事项失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 立即执行一次归档，返回归档的记录数
+     */
+    public int archive() {
+        lock.lock();
+        try {
+            LocalDateTime before = LocalDateTime.now().minusDays(afterDays);
+            int total = 0;
+            List<Long> ids;
+            do {
+                ids = todoItemDao.archiveCompleted(before, batchSize);
+                if (!ids.isEmpty()) {
+                    eventPublisher.publish(TodoEventPublisher.TODO_ARCHIVED, Map.of("ids", ids));
+                }
+                total += ids.size();
+            } while (ids.size() == batchSize);
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.todolist.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 待办事项和标签变更的SSE推送。
+ *
+ * 连接建立后只保存SseEmitter，不占用线程；订阅者有待发送的事件时才占用一个发送线程写出，写完即归还。
+ * 写出是阻塞的，不响应的客户端（如半开的TCP连接）只占住它自己的发送线程，不影响其他订阅者；
+ * 单次写出超过 events.send-timeout-seconds 的订阅者被断开、不再投递事件（包括持续极慢读取的客户端），
+ * 阻塞中的写出返回或因Tomcat的写超时失败后连接即结束。
+ * 每个订阅者有一个有界队列，客户端消费过慢导致队列写满时断开连接，由客户端携带 Last-Event-ID 重连后从最近的事件历史中补发。
+ * 事件ID形如 "启动时间-序号"，重启后或要补发的事件已不在历史中时，先发送 reset 事件，客户端需重新加载数据。
+ */
+@Service
+public class TodoEventPublisher {
+
+    public static final String TODO_CREATED = "todo.created";
+    public static final String TODO_BATCH_CREATED = "todo.batch_created";
+    public static final String TODO_UPDATED = "todo.updated";
+    public static final String TODO_STATUS = "todo.status";
+    public static final String TODO_DELETED = "todo.deleted";
+    public static final String TODO_ARCHIVED = "todo.archived";
+    public static final String TODO_BULK = "todo.bulk";
+    public static final String TAG_CREATED = "tag.created";
+    public static final String TAG_UPDATED = "tag.updated";
+    public static final String TAG_DELETED = "tag.deleted";
+    public static final String RESET = "reset";
+
+    @Value("${events.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${events.history-size:1000}")
+    private int historySize;
+
+    @Value("${events.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    @Value("${events.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${events.send-timeout-seconds:10}")
+    private long sendTimeoutSeconds;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // 最近的事件，用于断线重连后补发；publish和subscribe在同一把锁内操作，保证补发与新事件之间不重不漏
+    private final ArrayDeque<Event> history = new ArrayDeque<>();
+    private long lastSeq;
+
+    // 按需创建、空闲60秒后回收，线程数等于正在写出的订阅者数
+    private final ExecutorService senders = Executors.newCachedThreadPool(namedThreads("sse-sender"));
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(namedThreads("sse-heartbeat"));
+    private volatile boolean heartbeatStarted;
+
+    /**
+     * 订阅事件，lastEventId为客户端重连时携带的 Last-Event-ID
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        startHeartbeat();
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        synchronized (history) {
+            if (lastEventId != null && !lastEventId.isEmpty()) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * 发布事件，处于事务中时在提交后发布。data在发布时序列化一次，所有订阅者共用
+     */
+    public void publish(String type, Object data) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (Exception e) {
+            throw new RuntimeException("JSON processing error", e);
+        }
+        afterCommit(() -> dispatch(type, json));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close(null);
+        }
+        subscribers.clear();
+    }
+
+    private void dispatch(String type, String json) {
+        synchronized (history) {
+            Event event = new Event(epoch + "-" + (++lastSeq), type, json);
+            history.addLast(event);
+            while (history.size() > historySize) {
+                history.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.offer(event, bufferSize)) {
+                    // 队列已满，断开连接，客户端重连后补发
+                    subscribers.remove(subscriber);
+                    subscriber.close(null);
+                    continue;
+                }
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private void replay(Subscriber subscriber, String lastEventId) {
+        long seq = parseSeq(lastEventId);
+        Event oldest = history.peekFirst();
+        long oldestSeq = oldest != null ? parseSeq(oldest.id) : lastSeq + 1;
+        if (seq < 0 || seq > lastSeq || seq < oldestSeq - 1) {
+            subscriber.offer(new Event(epoch + "-" + lastSeq, RESET, "{}"), Integer.MAX_VALUE);
+            return;
+        }
+        for (Event event : history) {
+            if (parseSeq(event.id) > seq) {
+                subscriber.offer(event, Integer.MAX_VALUE);
+            }
+        }
+    }
+
+    /**
+     * 解析事件ID中的序号，不是本次启动发出的ID时返回-1
+     */
+    private long parseSeq(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void startHeartbeat() {
+        if (heartbeatStarted) {
+            return;
+        }
+        synchronized (heartbeats) {
+            if (!heartbeatStarted) {
+                heartbeats.scheduleAtFixedRate(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+                heartbeats.scheduleAtFixedRate(this::closeStalled, 1, 1, TimeUnit.SECONDS);
+                heartbeatStarted = true;
+            }
+        }
+    }
+
+    /**
+     * 空闲连接定期发送注释行，及时发现已断开的客户端，也避免被代理超时断开
+     */
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.offerHeartbeat()) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    /**
+     * 断开写出超时的订阅者，不再向其投递事件。正在阻塞的写出返回或失败后，由其发送线程结束连接
+     */
+    private void closeStalled() {
+        long timeoutNanos = TimeUnit.SECONDS.toNanos(sendTimeoutSeconds);
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isStalled(now, timeoutNanos)) {
+                subscribers.remove(subscriber);
+                subscriber.close(new IOException("写出超过 " + sendTimeoutSeconds + " 秒未完成"));
+            }
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.startDraining()) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        Event event;
+        while ((event = subscriber.poll()) != null) {
+            if (event == Event.CLOSE) {
+                // 写出期间被断开，此时已没有进行中的写出，结束连接不会阻塞
+                subscriber.finish();
+                return;
+            }
+            try {
+                if (event == Event.HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(event.id)
+                            .name(event.type)
+                            .data(event.json, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // 客户端已断开
+                subscribers.remove(subscriber);
+                subscriber.close(null);
+                // 下一次poll返回 Event.CLOSE
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class Event {
+        static final Event HEARTBEAT = new Event(null, null, null);
+        // 由poll返回给发送线程，表示订阅者已断开、需结束连接
+        static final Event CLOSE = new Event(null, null, null);
+
+        private final String id;
+        private final String type;
+        private final String json;
+
+        Event(String id, String type, String json) {
+            this.id = id;
+            this.type = type;
+            this.json = json;
+        }
+    }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final ArrayDeque<Event> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+        // 断开时尚在写出，需由发送线程结束连接
+        private boolean finishPending;
+        private Throwable closeError;
+        // 当前写出开始的时间（System.nanoTime），没有进行中的写出时为0
+        private long sendStartedAt;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized boolean offer(Event event, int capacity) {
+            if (closed || queue.size() >= capacity) {
+                return false;
+            }
+            queue.addLast(event);
+            return true;
+        }
+
+        synchronized boolean offerHeartbeat() {
+            if (closed || !queue.isEmpty()) {
+                return false;
+            }
+            queue.addLast(Event.HEARTBEAT);
+            return true;
+        }
+
+        /**
+         * 取出下一个要写出的事件并记录写出开始时间；已断开时返回 Event.CLOSE，没有事件时结束本轮发送并返回null
+         */
+        synchronized Event poll() {
+            if (finishPending) {
+                finishPending = false;
+                draining = false;
+                sendStartedAt = 0;
+                return Event.CLOSE;
+            }
+            Event event = queue.pollFirst();
+            if (event == null) {
+                draining = false;
+                sendStartedAt = 0;
+            } else {
+                sendStartedAt = Math.max(1, System.nanoTime());
+            }
+            return event;
+        }
+
+        synchronized boolean startDraining() {
+            if (draining || closed || queue.isEmpty()) {
+                return false;
+            }
+            draining = true;
+            return true;
+        }
+
+        synchronized boolean isStalled(long now, long timeoutNanos) {
+            return !closed && sendStartedAt != 0 && now - sendStartedAt > timeoutNanos;
+        }
+
+        /**
+         * 断开连接，error不为null时以错误结束。SseEmitter的方法与写出持有同一把锁，
+         * 发送线程正在写出时改由它在写出返回后结束连接，调用方（包括持有事件历史锁的dispatch）不会被阻塞
+         */
+        void close(Throwable error) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                closeError = error;
+                queue.clear();
+                if (draining) {
+                    finishPending = true;
+                    return;
+                }
+            }
+            finish();
+        }
+
+        void finish() {
+            if (closeError != null) {
+                emitter.completeWithError(closeError);
+            } else {
+                emitter.complete();
+            }
+        }
+    }
+}
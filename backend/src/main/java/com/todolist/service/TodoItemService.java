@@ -1,19 +1,52 @@
 package com.todolist.service;
 
+import com.todolist.dao.TodoChanges;
+import com.todolist.dao.TodoCursor;
+import com.todolist.dao.TodoFacetIndex;
+import com.todolist.dao.TodoFilter;
 import com.todolist.dao.TodoItemDao;
+import com.todolist.dao.TodoPage;
+import com.todolist.dao.TodoProjection;
+import com.todolist.dao.SearchTokenizer;
+import com.todolist.entity.Tag;
+import com.todolist.entity.TodoBulkRequest;
 import com.todolist.entity.TodoItem;
+import com.todolist.entity.TodoSearchHit;
+import com.todolist.entity.TodoStats;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 public class TodoItemService {
 
+    private static final int MAX_BATCH_SIZE = 5000;
+    private static final int SNIPPET_LENGTH = 80;
+
     @Autowired
     private TodoItemDao todoItemDao;
 
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private TodoEventPublisher eventPublisher;
+
+    @Autowired
+    private TodoWritePipeline writePipeline;
+
+    @Autowired
+    private TodoFacetIndex facetIndex;
+
     public List<TodoItem> getAllTodoItems() {
         return todoItemDao.findAll();
     }
@@ -22,6 +55,18 @@ public class TodoItemService {
         return todoItemDao.findById(id);
     }
 
+    public TodoItem getTodoItemById(Long id, TodoProjection projection) {
+        return todoItemDao.findById(id, projection);
+    }
+
+    public TodoItem getArchivedTodoItem(Long id) {
+        return todoItemDao.findArchivedById(id);
+    }
+
+    public Long getTodoItemVersion(Long id) {
+        return todoItemDao.findVersion(id);
+    }
+
     public TodoItem createTodoItem(TodoItem item) {
         if (item.getPriority() == null) {
             item.setPriority(1); // 默认低优先级
@@ -31,40 +76,206 @@ public class TodoItemService {
         }
         item.setCreatedAt(LocalDateTime.now());
         item.setUpdatedAt(LocalDateTime.now());
-        return todoItemDao.save(item);
+        item.setTags(tagService.resolveTags(item.getTags()));
+        TodoItem savedItem = todoItemDao.save(item);
+        eventPublisher.publish(TodoEventPublisher.TODO_CREATED, savedItem);
+        return savedItem;
+    }
+
+    /**
+     * 批量创建待办事项，先校验全部数据，任一条不合法则整体不写入
+     */
+    public List<TodoItem> createTodoItems(List<TodoItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("待办事项列表不能为空");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("单次最多创建 " + MAX_BATCH_SIZE + " 条待办事项");
+        }
+
+        for (int i = 0; i < items.size(); i++) {
+            TodoItem item = items.get(i);
+            if (item == null || item.getTitle() == null || item.getTitle().trim().isEmpty()) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 条待办事项标题不能为空");
+            }
+            if (item.getPriority() == null) {
+                item.setPriority(1); // 默认低优先级
+            } else if (item.getPriority() < 1 || item.getPriority() > 3) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 条待办事项优先级无效: " + item.getPriority());
+            }
+            if (item.getStatus() == null) {
+                item.setStatus(0); // 默认待办状态
+            } else if (item.getStatus() < 0 || item.getStatus() > 3) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 条待办事项状态无效: " + item.getStatus());
+            }
+            item.setCreatedAt(LocalDateTime.now());
+            item.setUpdatedAt(LocalDateTime.now());
+        }
+
+        Set<String> tags = new LinkedHashSet<>();
+        for (TodoItem item : items) {
+            if (item.getTags() != null) {
+                tags.addAll(item.getTags());
+            }
+        }
+        tagService.ensureTags(tags);
+        for (TodoItem item : items) {
+            item.setTags(tagService.resolveTags(item.getTags()));
+        }
+        List<TodoItem> savedItems = todoItemDao.insertAll(items);
+
+        // 批量创建只推送一个事件，避免大批量写入挤满订阅者的缓冲区
+        List<Long> ids = new ArrayList<>(savedItems.size());
+        for (TodoItem item : savedItems) {
+            ids.add(item.getId());
+        }
+        eventPublisher.publish(TodoEventPublisher.TODO_BATCH_CREATED, Map.of("ids", ids));
+        return savedItems;
+    }
+
+    /**
+     * 导入已解析的待办事项，保留其中的创建和完成时间：所有标签一次性确认（新标签的颜色由tagColor按名称给出），
+     * 之后每 MAX_BATCH_SIZE 条一个事务写入，每批提交后推送一个批量创建事件。中途失败时已提交的批次保留。返回写入的条数
+     */
+    public int importTodoItems(List<TodoItem> items, Function<String, String> tagColor) {
+        Set<String> tags = new LinkedHashSet<>();
+        for (TodoItem item : items) {
+            if (item.getTags() != null) {
+                tags.addAll(item.getTags());
+            }
+        }
+        tagService.ensureTags(tags, tagColor);
+        for (TodoItem item : items) {
+            item.setTags(tagService.resolveTags(item.getTags()));
+        }
+
+        int imported = 0;
+        for (int from = 0; from < items.size(); from += MAX_BATCH_SIZE) {
+            List<TodoItem> savedItems = todoItemDao.insertAll(items.subList(from, Math.min(from + MAX_BATCH_SIZE, items.size())));
+            List<Long> ids = new ArrayList<>(savedItems.size());
+            for (TodoItem item : savedItems) {
+                ids.add(item.getId());
+            }
+            eventPublisher.publish(TodoEventPublisher.TODO_BATCH_CREATED, Map.of("ids", ids));
+            imported += savedItems.size();
+        }
+        return imported;
     }
 
     public TodoItem updateTodoItem(Long id, TodoItem item) {
-        TodoItem existingItem = todoItemDao.findById(id);
-        if (existingItem == null) {
+        // 只更新非空字段
+        TodoItem updatedItem = patchTodoItem(id, item, null);
+        if (updatedItem == null) {
             throw new RuntimeException("待办事项不存在，ID: " + id);
         }
-        
-        // 只更新非空字段
-        if (item.getTitle() != null) {
-            existingItem.setTitle(item.getTitle());
+        return updatedItem;
+    }
+
+    /**
+     * 部分更新：只写入changes中的非空字段，一条SQL完成。
+     * expectedVersion不为空时进行乐观锁校验，版本不一致抛出VersionConflictException；记录不存在返回null
+     */
+    public TodoItem patchTodoItem(Long id, TodoItem changes, Long expectedVersion) {
+        TodoItem updatedItem = applyChanges(id, changes, expectedVersion);
+        if (updatedItem != null) {
+            eventPublisher.publish(TodoEventPublisher.TODO_UPDATED, updatedItem);
+        }
+        return updatedItem;
+    }
+
+    private TodoItem applyChanges(Long id, TodoItem changes, Long expectedVersion) {
+        // 取值范围与新建、批量操作相同
+        if (changes.getStatus() != null && (changes.getStatus() < 0 || changes.getStatus() > 3)) {
+            throw new IllegalArgumentException("状态无效: " + changes.getStatus());
+        }
+        if (changes.getPriority() != null && (changes.getPriority() < 1 || changes.getPriority() > 3)) {
+            throw new IllegalArgumentException("优先级无效: " + changes.getPriority());
         }
-        if (item.getDescription() != null) {
-            existingItem.setDescription(item.getDescription());
+        changes.setTags(tagService.resolveTags(changes.getTags()));
+        // 经组提交管道写入，与其他并发更新合并在同一个事务中提交
+        TodoItem updatedItem = writePipeline.updateFields(id, changes, expectedVersion);
+        if (updatedItem == null && expectedVersion != null) {
+            Long currentVersion = todoItemDao.findVersion(id);
+            if (currentVersion != null) {
+                throw new VersionConflictException(id, currentVersion);
+            }
         }
-        if (item.getPriority() != null) {
-            existingItem.setPriority(item.getPriority());
+        return updatedItem;
+    }
+
+    /**
+     * 批量操作：对ids或filter选中的待办事项以一条SQL执行action，返回实际修改或删除的记录数
+     */
+    public int bulkUpdate(TodoBulkRequest request) {
+        String action = request.getAction();
+        if (action == null) {
+            throw new IllegalArgumentException("操作类型不能为空");
+        }
+        boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean hasFilter = request.getFilter() != null && !request.getFilter().trim().isEmpty();
+        if (!hasIds && !hasFilter) {
+            // 不允许不带条件地修改全部数据
+            throw new IllegalArgumentException("必须指定ids或filter");
         }
-        if (item.getStatus() != null) {
-            existingItem.setStatus(item.getStatus());
+        if (hasIds && request.getIds().size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("单次最多指定 " + MAX_BATCH_SIZE + " 个ID");
         }
-        if (item.getTags() != null) {
-            existingItem.setTags(item.getTags());
+
+        TodoFilter filter = TodoFilter.parse(request.getFilter());
+        if (hasIds) {
+            filter.idIn(request.getIds());
         }
-        if (item.getImagePaths() != null) {
-            existingItem.setImagePaths(item.getImagePaths());
+
+        List<Long> ids;
+        switch (action) {
+            case TodoBulkRequest.SET_STATUS:
+                if (request.getStatus() == null) {
+                    throw new IllegalArgumentException("状态不能为空");
+                }
+                if (request.getStatus() < 0 || request.getStatus() > 3) {
+                    throw new IllegalArgumentException("状态无效: " + request.getStatus());
+                }
+                ids = todoItemDao.bulkSetStatus(filter, request.getStatus());
+                break;
+            case TodoBulkRequest.SET_PRIORITY:
+                if (request.getPriority() == null) {
+                    throw new IllegalArgumentException("优先级不能为空");
+                }
+                if (request.getPriority() < 1 || request.getPriority() > 3) {
+                    throw new IllegalArgumentException("优先级无效: " + request.getPriority());
+                }
+                ids = todoItemDao.bulkSetPriority(filter, request.getPriority());
+                break;
+            case TodoBulkRequest.ADD_TAG:
+                // 与已有标签只差大小写的名称按已有标签处理，tags中写入标签表中的名称
+                Tag tag = tagService.getTagByName(tagService.resolveTags(List.of(requireTag(request))).get(0));
+                if (tag == null) {
+                    throw new IllegalStateException("标签已被删除: " + request.getTag());
+                }
+                ids = todoItemDao.bulkAddTag(filter, tag);
+                break;
+            case TodoBulkRequest.REMOVE_TAG:
+                Tag existing = tagService.getTagByName(requireTag(request));
+                ids = todoItemDao.bulkRemoveTag(filter, existing != null ? existing.getName() : requireTag(request));
+                break;
+            case TodoBulkRequest.DELETE:
+                ids = todoItemDao.bulkDelete(filter);
+                break;
+            default:
+                throw new IllegalArgumentException("未知操作: " + action);
         }
-        if (item.getCompletedAt() != null) {
-            existingItem.setCompletedAt(item.getCompletedAt());
+
+        if (!ids.isEmpty()) {
+            eventPublisher.publish(TodoEventPublisher.TODO_BULK, Map.of("action", action, "ids", ids));
         }
-        
-        existingItem.setUpdatedAt(LocalDateTime.now());
-        return todoItemDao.save(existingItem);
+        return ids.size();
+    }
+
+    private String requireTag(TodoBulkRequest request) {
+        if (request.getTag() == null || request.getTag().trim().isEmpty()) {
+            throw new IllegalArgumentException("标签不能为空");
+        }
+        return request.getTag().trim();
     }
 
     public void deleteTodoItem(Long id) {
@@ -73,6 +284,197 @@ public class TodoItemService {
             throw new RuntimeException("待办事项不存在，ID: " + id);
         }
         todoItemDao.deleteById(id);
+        eventPublisher.publish(TodoEventPublisher.TODO_DELETED, Map.of("id", id));
+    }
+
+    public List<TodoItem> getTodoItems(TodoFilter filter, TodoProjection projection) {
+        return todoItemDao.findByFilter(filter, projection);
+    }
+
+    public void streamTodoItems(TodoFilter filter, TodoProjection projection, Consumer<TodoItem> consumer) {
+        todoItemDao.streamByFilter(filter, projection, consumer);
+    }
+
+    public TodoPage getTodoItemPage(TodoFilter filter, TodoCursor cursor, int limit, TodoProjection projection) {
+        return todoItemDao.findPage(filter, cursor, limit, projection);
+    }
+
+    /**
+     * 全文检索，返回按相关度排序的结果，标题和描述摘要中的命中关键词以<mark>标记
+     */
+    public List<TodoSearchHit> searchTodoItems(String query, int limit, int offset) {
+        String matchQuery = SearchTokenizer.toMatchQuery(query);
+        if (matchQuery == null) {
+            return new ArrayList<>();
+        }
+
+        List<String> terms = SearchTokenizer.terms(query);
+        List<TodoSearchHit> hits = todoItemDao.search(matchQuery, limit, offset);
+        for (TodoSearchHit hit : hits) {
+            hit.setHighlightedTitle(highlight(hit.getItem().getTitle(), terms, -1));
+            hit.setDescriptionSnippet(highlight(hit.getItem().getDescription(), terms, SNIPPET_LENGTH));
+        }
+        return hits;
+    }
+
+    public int countSearchResults(String query) {
+        String matchQuery = SearchTokenizer.toMatchQuery(query);
+        return matchQuery == null ? 0 : todoItemDao.countSearch(matchQuery);
+    }
+
+    /**
+     * 用<mark>标记文本中的关键词；maxLength大于0时截取第一个命中位置附近的片段
+     */
+    private String highlight(String text, List<String> terms, int maxLength) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+
+        // 逐字符忽略大小写比较，不先把整段文本转为小写：个别字符（如İ）转为小写后长度变化，位置会与原文错开
+        boolean[] marked = new boolean[text.length()];
+        int firstMatch = -1;
+        for (String term : terms) {
+            int length = term.length();
+            int index = 0;
+            while (index + length <= text.length()) {
+                if (!text.regionMatches(true, index, term, 0, length)) {
+                    index++;
+                    continue;
+                }
+                for (int i = index; i < index + length; i++) {
+                    marked[i] = true;
+                }
+                if (firstMatch < 0 || index < firstMatch) {
+                    firstMatch = index;
+                }
+                index += length;
+            }
+        }
+
+        int start = 0;
+        int end = text.length();
+        if (maxLength > 0 && text.length() > maxLength) {
+            start = Math.max(0, Math.min(firstMatch - maxLength / 4, text.length() - maxLength));
+            end = start + maxLength;
+            if (Character.isLowSurrogate(text.charAt(start))) {
+                start++;
+            }
+            if (end < text.length() && Character.isLowSurrogate(text.charAt(end))) {
+                end++;
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        if (start > 0) {
+            sb.append("…");
+        }
+        for (int i = start; i < end; i++) {
+            if (marked[i] && (i == start || !marked[i - 1])) {
+                sb.append("<mark>");
+            }
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '&' -> sb.append("&amp;");
+                case '"' -> sb.append("&quot;");
+                default -> sb.append(c);
+            }
+            if (marked[i] && (i == end - 1 || !marked[i + 1])) {
+                sb.append("</mark>");
+            }
+        }
+        if (end < text.length()) {
+            sb.append("…");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 增量同步，token为上一次返回的nextToken，为空时返回全部数据
+     */
+    public TodoChanges getChanges(String token, int limit) {
+        long since = 0;
+        if (token != null && !token.isEmpty()) {
+            try {
+                since = Long.parseLong(token);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("无效的同步标记: " + token);
+            }
+            if (since < 0) {
+                throw new IllegalArgumentException("无效的同步标记: " + token);
+            }
+        }
+        return todoItemDao.findChanges(since, limit);
+    }
+
+    public TodoStats getTodoStats() {
+        TodoStats stats = todoItemDao.findStats();
+        long completed = stats.getByStatus().getOrDefault(2, 0L);
+        if (stats.getTotal() > 0) {
+            stats.setCompletionRate(Math.round(completed * 1000.0 / stats.getTotal()) / 10.0);
+        }
+        return stats;
+    }
+
+    /**
+     * 比较分面索引与数据库（todo_tags）的全表统计，返回是否一致及不一致的项。
+     * 两次统计之间有写入时可能出现暂时的差异，需重新检查
+     */
+    public Map<String, Object> verifyFacetIndex() {
+        TodoStats index = facetIndex.count(List.of());
+        TodoStats database = todoItemDao.findStats();
+        List<Map<String, Object>> differences = new ArrayList<>();
+        if (index.getTotal() != database.getTotal()) {
+            differences.add(difference("total", null, index.getTotal(), database.getTotal()));
+        }
+        compareCounts("status", index.getByStatus(), database.getByStatus(), differences);
+        compareCounts("priority", index.getByPriority(), database.getByPriority(), differences);
+        compareCounts("tag", index.getByTag(), database.getByTag(), differences);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("consistent", differences.isEmpty());
+        result.put("differences", differences);
+        return result;
+    }
+
+    private static <K> void compareCounts(String facet, Map<K, Long> index, Map<K, Long> database,
+                                          List<Map<String, Object>> differences) {
+        Set<K> keys = new LinkedHashSet<>(database.keySet());
+        keys.addAll(index.keySet());
+        for (K key : keys) {
+            long indexCount = index.getOrDefault(key, 0L);
+            long databaseCount = database.getOrDefault(key, 0L);
+            if (indexCount != databaseCount) {
+                differences.add(difference(facet, key, indexCount, databaseCount));
+            }
+        }
+    }
+
+    private static Map<String, Object> difference(String facet, Object key, long index, long database) {
+        Map<String, Object> difference = new LinkedHashMap<>();
+        difference.put("facet", facet);
+        difference.put("key", key);
+        difference.put("index", index);
+        difference.put("database", database);
+        return difference;
+    }
+
+    /**
+     * 由内存中的分面索引统计筛选结果按状态、优先级、标签的数量，不查询数据库。
+     * 只支持status、priority、tag条件，只统计未归档的待办事项
+     */
+    public TodoStats getTodoFacets(TodoFilter filter) {
+        List<TodoFilter.Criterion> criteria = filter.getCriteria();
+        if (criteria == null) {
+            throw new IllegalArgumentException("分面统计只支持 status、priority、tag 条件");
+        }
+        TodoStats stats = facetIndex.count(criteria);
+        long completed = stats.getByStatus().getOrDefault(2, 0L);
+        if (stats.getTotal() > 0) {
+            stats.setCompletionRate(Math.round(completed * 1000.0 / stats.getTotal()) / 10.0);
+        }
+        return stats;
     }
 
     public List<TodoItem> getTodoItemsByStatus(Integer status) {
@@ -92,13 +494,13 @@ public class TodoItemService {
     }
 
     public TodoItem updateTodoItemStatus(Long id, Integer status) {
-        TodoItem item = todoItemDao.findById(id);
-        if (item == null) {
+        TodoItem changes = new TodoItem();
+        changes.setStatus(status);
+        TodoItem updatedItem = applyChanges(id, changes, null);
+        if (updatedItem == null) {
             throw new RuntimeException("待办事项不存在，ID: " + id);
         }
-        
-        item.setStatus(status);
-        item.setUpdatedAt(LocalDateTime.now());
-        return todoItemDao.save(item);
+        eventPublisher.publish(TodoEventPublisher.TODO_STATUS, updatedItem);
+        return updatedItem;
     }
 }
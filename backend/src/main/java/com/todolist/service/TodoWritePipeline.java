@@ -0,0 +1,377 @@
+package com.todolist.service;
+
+import com.todolist.dao.TodoItemDao;
+import com.todolist.entity.TodoItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 待办事项字段更新的组提交管道。
+ *
+ * 更新请求进入队列后由单个写线程批量取出：第一条到达后最多再等待 max-delay-ms 毫秒或凑满 max-batch 条，
+ * 整批在一个事务内执行并提交一次。同一批中对同一ID的无条件更新合并为一条UPDATE（后到的非空字段覆盖先到的），
+ * 带版本号校验的更新按到达顺序单独执行。调用方在事务提交后才得到结果，与直接写入的持久性相同。
+ *
+ * 整批执行失败时按ID逐组重试，只有出错的那一组收到异常。
+ *
+ * 调用方最多等待 timeout-ms 毫秒。写线程捕获所有异常（包括Error）并交给对应的调用方，不会因一批写入失败而退出；
+ * 关闭时处理完已入队的请求后退出，之后入队的请求由调用方直接写入。
+ */
+@Service
+public class TodoWritePipeline {
+
+    private static final int LATENCY_SAMPLES = 4096;
+    private static final int RATE_WINDOW_SECONDS = 10;
+
+    @Value("${write-pipeline.enabled:true}")
+    private boolean enabled;
+
+    @Value("${write-pipeline.max-batch:256}")
+    private int maxBatch;
+
+    @Value("${write-pipeline.max-delay-ms:2}")
+    private long maxDelayMs;
+
+    @Value("${write-pipeline.queue-size:10000}")
+    private int queueSize;
+
+    @Value("${write-pipeline.timeout-ms:30000}")
+    private long timeoutMs;
+
+    @Autowired
+    private TodoItemDao todoItemDao;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private BlockingQueue<PendingWrite> queue;
+    private Thread writer;
+    private volatile boolean running;
+    // 写线程已退出取队列的循环，之后入队的请求不会再被处理
+    private volatile boolean stopped;
+
+    private final Stats stats = new Stats();
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new LinkedBlockingQueue<>(queueSize);
+        running = true;
+        writer = new Thread(this::run, "todo-write-pipeline");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                // 等待已入队的请求写完，之后连接池才关闭
+                writer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 更新changes中的非空字段，提交后返回更新后的记录；记录不存在或版本不一致时返回null。
+     * 未启用管道、已关闭或调用方已处于事务中时直接写入（写连接只有一个，排队等待会与当前事务互相等待）
+     */
+    public TodoItem updateFields(Long id, TodoItem changes, Long expectedVersion) {
+        if (!enabled || !running || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return todoItemDao.updateFields(id, changes, expectedVersion);
+        }
+
+        PendingWrite write = new PendingWrite(id, changes, expectedVersion);
+        try {
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("写入被中断", e);
+        }
+        if (stopped && queue.remove(write)) {
+            // 与关闭同时入队，写线程已不再取队列
+            return todoItemDao.updateFields(id, changes, expectedVersion);
+        }
+        try {
+            return write.future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("等待写入结果超时（" + timeoutMs + "ms），更新可能仍会提交", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("写入被中断", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = stats.snapshot();
+        result.put("enabled", enabled);
+        result.put("queued", queue != null ? queue.size() : 0);
+        result.put("maxBatch", maxBatch);
+        result.put("maxDelayMs", maxDelayMs);
+        result.put("writerAlive", writer != null && writer.isAlive());
+        return result;
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // 关闭时先处理已取出的请求，之后不再等待新请求
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    commit(batch);
+                } catch (Throwable e) {
+                    // commit已把异常交给调用方，这里只兜底，保证写线程继续运行、调用方不会一直等待
+                    for (PendingWrite write : batch) {
+                        if (!write.future.isDone()) {
+                            fail(write, e);
+                        }
+                    }
+                }
+                batch.clear();
+            }
+        }
+
+        // 循环结束后入队的请求：先标记stopped，调用方入队后看到该标记会自行取回直接写入；已在队列中的交给调用方重试
+        stopped = true;
+        PendingWrite write;
+        while ((write = queue.poll()) != null) {
+            fail(write, new IllegalStateException("写入管道已关闭"));
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        // 按ID分组，组内保持到达顺序；不同ID之间互不影响，可以任意顺序执行
+        Map<Long, List<PendingWrite>> byId = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            byId.computeIfAbsent(write.id, k -> new ArrayList<>()).add(write);
+        }
+
+        try {
+            int statements = transactionTemplate.execute(status -> {
+                int count = 0;
+                for (List<PendingWrite> writes : byId.values()) {
+                    count += apply(writes);
+                }
+                return count;
+            });
+            stats.recordCommit(batch.size(), statements);
+            for (PendingWrite write : batch) {
+                complete(write);
+            }
+        } catch (RuntimeException e) {
+            if (byId.size() == 1) {
+                for (PendingWrite write : batch) {
+                    fail(write, e);
+                }
+                return;
+            }
+            for (List<PendingWrite> writes : byId.values()) {
+                commit(writes);
+            }
+        } catch (Throwable e) {
+            // Error等非运行时异常不逐组重试，整批失败
+            for (PendingWrite write : batch) {
+                fail(write, e);
+            }
+        }
+    }
+
+    /**
+     * 在当前事务内执行同一ID的一组更新，返回执行的UPDATE语句数
+     */
+    private int apply(List<PendingWrite> writes) {
+        int statements = 0;
+        List<PendingWrite> run = new ArrayList<>();
+        TodoItem merged = null;
+        for (PendingWrite write : writes) {
+            if (write.expectedVersion == null) {
+                run.add(write);
+                merged = merge(merged, write.changes);
+                continue;
+            }
+            // 版本号校验依赖之前的更新结果，先写入已合并的更新
+            statements += flush(run, merged);
+            run.clear();
+            merged = null;
+            write.result = todoItemDao.updateFields(write.id, write.changes, write.expectedVersion);
+            statements++;
+        }
+        statements += flush(run, merged);
+        return statements;
+    }
+
+    private int flush(List<PendingWrite> run, TodoItem merged) {
+        if (run.isEmpty()) {
+            return 0;
+        }
+        TodoItem result = todoItemDao.updateFields(run.get(0).id, merged, null);
+        if (result != null && run.size() > 1) {
+            // 多个调用方共用同一个结果对象，先在写线程中解析JSON字段
+            result.getTags();
+            result.getImagePaths();
+        }
+        for (PendingWrite write : run) {
+            write.result = result;
+        }
+        return 1;
+    }
+
+    private static TodoItem merge(TodoItem base, TodoItem changes) {
+        if (base == null) {
+            return changes;
+        }
+        TodoItem merged = new TodoItem();
+        merged.setTitle(changes.getTitle() != null ? changes.getTitle() : base.getTitle());
+        merged.setDescription(changes.getDescription() != null ? changes.getDescription() : base.getDescription());
+        merged.setPriority(changes.getPriority() != null ? changes.getPriority() : base.getPriority());
+        merged.setStatus(changes.getStatus() != null ? changes.getStatus() : base.getStatus());
+        merged.setTags(changes.getTags() != null ? changes.getTags() : base.getTags());
+        merged.setImagePaths(changes.getImagePaths() != null ? changes.getImagePaths() : base.getImagePaths());
+        merged.setCompletedAt(changes.getCompletedAt() != null ? changes.getCompletedAt() : base.getCompletedAt());
+        return merged;
+    }
+
+    private void complete(PendingWrite write) {
+        stats.recordLatency(System.nanoTime() - write.enqueuedAt);
+        write.future.complete(write.result);
+    }
+
+    private void fail(PendingWrite write, Throwable e) {
+        stats.recordLatency(System.nanoTime() - write.enqueuedAt);
+        write.future.completeExceptionally(e);
+    }
+
+    private static class PendingWrite {
+        private final Long id;
+        private final TodoItem changes;
+        private final Long expectedVersion;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<TodoItem> future = new CompletableFuture<>();
+        private TodoItem result;
+
+        PendingWrite(Long id, TodoItem changes, Long expectedVersion) {
+            this.id = id;
+            this.changes = changes;
+            this.expectedVersion = expectedVersion;
+        }
+    }
+
+    /**
+     * 最近的确认延迟（入队到得到结果）采样和按秒统计的提交次数
+     */
+    private static class Stats {
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private int latencyCount;
+        private int latencyNext;
+
+        private final long[] commitSeconds = new long[RATE_WINDOW_SECONDS + 1];
+        private final long[] commitCounts = new long[RATE_WINDOW_SECONDS + 1];
+
+        private long commits;
+        private long operations;
+        private long statements;
+
+        synchronized void recordLatency(long nanos) {
+            latencies[latencyNext] = nanos;
+            latencyNext = (latencyNext + 1) % latencies.length;
+            latencyCount = Math.min(latencyCount + 1, latencies.length);
+        }
+
+        synchronized void recordCommit(int batchOperations, int batchStatements) {
+            commits++;
+            operations += batchOperations;
+            statements += batchStatements;
+            long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+            int slot = (int) (second % commitSeconds.length);
+            if (commitSeconds[slot] != second) {
+                commitSeconds[slot] = second;
+                commitCounts[slot] = 0;
+            }
+            commitCounts[slot]++;
+        }
+
+        synchronized Map<String, Object> snapshot() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("commits", commits);
+            result.put("operations", operations);
+            result.put("statements", statements);
+            result.put("avgBatchSize", commits > 0 ? Math.round(operations * 10.0 / commits) / 10.0 : 0.0);
+
+            // 最近若干个完整秒内的平均提交次数，不含当前这一秒
+            long now = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+            long recent = 0;
+            for (int i = 0; i < commitSeconds.length; i++) {
+                if (commitSeconds[i] < now && commitSeconds[i] >= now - RATE_WINDOW_SECONDS) {
+                    recent += commitCounts[i];
+                }
+            }
+            result.put("commitsPerSecond", Math.round(recent * 10.0 / RATE_WINDOW_SECONDS) / 10.0);
+
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            result.put("latencySamples", latencyCount);
+            result.put("p50Millis", percentileMillis(sorted, 0.50));
+            result.put("p99Millis", percentileMillis(sorted, 0.99));
+            result.put("maxMillis", percentileMillis(sorted, 1.0));
+            return result;
+        }
+
+        private static double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            long nanos = sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+            return Math.round(nanos / 10_000.0) / 100.0;
+        }
+    }
+}
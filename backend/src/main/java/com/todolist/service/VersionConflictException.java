@@ -0,0 +1,18 @@
+package com.todolist.service;
+
+/**
+ * 更新时携带的版本号与数据库中的当前版本不一致
+ */
+public class VersionConflictException extends RuntimeException {
+
+    private final Long currentVersion;
+
+    public VersionConflictException(Long id, Long currentVersion) {
+        super("待办事项已被修改，ID: " + id + "，当前版本: " + currentVersion);
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -0,0 +1,139 @@
+package com.todolist.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 字符串数组JSON（如 ["迁云项目-阿里云","个人事项"]）的解析工具。
+ *
+ * 数据库中tags、image_paths字段只保存字符串数组，逐字符解析即可，不需要经过Jackson的类型解析和树模型；
+ * 遇到不符合预期的内容时退回到预先构建好的ObjectReader。
+ */
+public final class JsonStringArray {
+
+    private static final ObjectReader FALLBACK_READER = new ObjectMapper().readerForListOf(String.class);
+
+    private JsonStringArray() {
+    }
+
+    /**
+     * 解析字符串数组，为空或无法解析时返回空列表
+     */
+    public static List<String> parse(String json) {
+        if (json == null || json.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> values = tryParse(json);
+        if (values != null) {
+            return values;
+        }
+        try {
+            List<String> parsed = FALLBACK_READER.readValue(json);
+            return parsed != null ? parsed : new ArrayList<>();
+        } catch (Exception e) {
+            return new ArrayList<>();
+        }
+    }
+
+    private static List<String> tryParse(String json) {
+        int length = json.length();
+        int pos = skipWhitespace(json, 0);
+        if (pos >= length || json.charAt(pos) != '[') {
+            return null;
+        }
+        pos = skipWhitespace(json, pos + 1);
+
+        List<String> values = new ArrayList<>();
+        if (pos < length && json.charAt(pos) == ']') {
+            return skipWhitespace(json, pos + 1) == length ? values : null;
+        }
+
+        StringBuilder escaped = null;
+        while (pos < length) {
+            if (json.charAt(pos) != '"') {
+                return null;
+            }
+            int start = ++pos;
+            // 没有转义字符时直接截取子串
+            while (pos < length && json.charAt(pos) != '"' && json.charAt(pos) != '\\') {
+                pos++;
+            }
+            if (pos >= length) {
+                return null;
+            }
+            if (json.charAt(pos) == '"') {
+                values.add(json.substring(start, pos));
+            } else {
+                if (escaped == null) {
+                    escaped = new StringBuilder();
+                }
+                escaped.setLength(0);
+                escaped.append(json, start, pos);
+                while (pos < length && json.charAt(pos) != '"') {
+                    char c = json.charAt(pos++);
+                    if (c != '\\') {
+                        escaped.append(c);
+                        continue;
+                    }
+                    if (pos >= length) {
+                        return null;
+                    }
+                    char next = json.charAt(pos++);
+                    switch (next) {
+                        case '"', '\\', '/' -> escaped.append(next);
+                        case 'b' -> escaped.append('\b');
+                        case 'f' -> escaped.append('\f');
+                        case 'n' -> escaped.append('\n');
+                        case 'r' -> escaped.append('\r');
+                        case 't' -> escaped.append('\t');
+                        case 'u' -> {
+                            if (pos + 4 > length) {
+                                return null;
+                            }
+                            int code = 0;
+                            for (int i = 0; i < 4; i++) {
+                                int digit = Character.digit(json.charAt(pos++), 16);
+                                if (digit < 0) {
+                                    return null;
+                                }
+                                code = code * 16 + digit;
+                            }
+                            escaped.append((char) code);
+                        }
+                        default -> {
+                            return null;
+                        }
+                    }
+                }
+                if (pos >= length) {
+                    return null;
+                }
+                values.add(escaped.toString());
+            }
+
+            pos = skipWhitespace(json, pos + 1);
+            if (pos >= length) {
+                return null;
+            }
+            char c = json.charAt(pos);
+            if (c == ']') {
+                return skipWhitespace(json, pos + 1) == length ? values : null;
+            }
+            if (c != ',') {
+                return null;
+            }
+            pos = skipWhitespace(json, pos + 1);
+        }
+        return null;
+    }
+
+    private static int skipWhitespace(String json, int pos) {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,212 @@
+package com.todolist.util;
+
+import com.todolist.entity.TodoItem;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 解析Obsidian Tasks格式的任务行，如：
+ * - [x] 标题 #标签 ⏫ ➕ 2025-08-29 ✅ 2025-08-29 ;; 备注
+ *
+ * 任务行由预编译的正则识别；之后的内容只扫描一遍，同时得到标题（去掉备注、标签、符号和日期）、
+ * 标签、优先级和创建、完成日期。解析器不保存状态，可在多个线程中同时使用。
+ */
+public final class ObsidianTaskParser {
+
+    // 任务行：可缩进，列表符号为 - * + 或有序编号，方括号中为状态字符
+    private static final Pattern TASK = Pattern.compile("^\\s*(?:[-*+]|\\d+[.)])\\s+\\[(.)\\](?:\\s+(.*))?$");
+
+    private static final int HIGHEST = 0x1F53A; // 🔺
+    private static final int HIGH = 0x23EB; // ⏫
+    private static final int MEDIUM = 0x1F53C; // 🔼
+    private static final int LOW = 0x1F53D; // 🔽
+    private static final int LOWEST = 0x23EC; // ⏬
+    private static final int CREATED = 0x2795; // ➕
+    private static final int COMPLETED = 0x2705; // ✅
+    private static final int DUE = 0x1F4C5; // 📅
+    private static final int CANCELLED = 0x274C; // ❌
+    private static final int START = 0x1F6EB; // 🛫
+    private static final int SCHEDULED = 0x23F3; // ⏳
+
+    // 日期只有年月日时使用的时刻
+    private static final LocalTime CREATED_TIME = LocalTime.of(9, 0);
+    private static final LocalTime COMPLETED_TIME = LocalTime.of(18, 0);
+
+    private ObsidianTaskParser() {}
+
+    /**
+     * 解析一行，不是任务行（标题、正文、空行等）时返回null；是任务行但内容无效时抛出IllegalArgumentException
+     */
+    public static TodoItem parse(String line) {
+        if (line == null) {
+            return null;
+        }
+        Matcher task = TASK.matcher(line);
+        if (!task.matches()) {
+            return null;
+        }
+        String content = task.group(2) != null ? task.group(2) : "";
+
+        StringBuilder title = new StringBuilder(content.length());
+        List<String> tags = new ArrayList<>();
+        boolean high = false;
+        boolean low = false;
+        int createdAt = -1; // ➕ 之后日期的位置
+        int completedAt = -1; // ✅ 之后日期的位置
+        int note = -1; // ;; 之后备注的位置，备注不计入标题，其中的标签、符号和日期仍然有效
+
+        int n = content.length();
+        int i = 0;
+        while (i < n) {
+            int c = content.codePointAt(i);
+            if (c == ';' && note < 0 && i + 1 < n && content.charAt(i + 1) == ';') {
+                note = i + 2;
+                i = note;
+            } else if (c == '#' && (i == 0 || isSpace(content.charAt(i - 1)))
+                    && i + 1 < n && !isSpace(content.charAt(i + 1)) && content.charAt(i + 1) != '#') {
+                // 标签须位于开头或空白之后，避免把链接中的锚点当作标签
+                int end = i + 1;
+                while (end < n && !isSpace(content.charAt(end)) && content.charAt(end) != '#') {
+                    end++;
+                }
+                String tag = content.substring(i + 1, end);
+                if (!tags.contains(tag)) {
+                    tags.add(tag);
+                }
+                i = end;
+            } else if (isDate(content, i)) {
+                i += 10;
+            } else if (isSymbol(c)) {
+                if (c == HIGHEST || c == HIGH || c == MEDIUM) {
+                    high = true;
+                } else if (c == LOW || c == LOWEST) {
+                    low = true;
+                } else if (c == CREATED && createdAt < 0) {
+                    createdAt = dateAfter(content, i + 1);
+                } else if (c == COMPLETED && completedAt < 0) {
+                    completedAt = dateAfter(content, i + 1);
+                }
+                i += Character.charCount(c);
+            } else {
+                if (note < 0) {
+                    if (!isSpace(c)) {
+                        title.appendCodePoint(c);
+                    } else if (title.length() > 0 && title.charAt(title.length() - 1) != ' ') {
+                        title.append(' ');
+                    }
+                }
+                i += Character.charCount(c);
+            }
+        }
+
+        int length = title.length();
+        if (length > 0 && title.charAt(length - 1) == ' ') {
+            title.setLength(length - 1);
+        }
+        if (title.length() == 0) {
+            throw new IllegalArgumentException("任务标题为空");
+        }
+
+        TodoItem todo = new TodoItem();
+        int status = parseStatus(task.group(1).charAt(0));
+        todo.setStatus(status);
+        todo.setTitle(title.toString());
+        todo.setPriority(high ? 3 : low ? 1 : 2); // ⏫🔺🔼 为高优先级，🔽⏬ 为低优先级，默认中优先级
+        todo.setTags(tags);
+        if (note >= 0) {
+            String description = content.substring(note).trim();
+            if (!description.isEmpty()) {
+                todo.setDescription(description);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        todo.setCreatedAt(createdAt >= 0 ? parseDate(content, createdAt, "创建日期").atTime(CREATED_TIME) : now);
+
+        // 只有已完成的任务才设置完成时间，没有明确的完成日期时使用创建时间
+        if (status == 2) {
+            todo.setCompletedAt(completedAt >= 0
+                    ? parseDate(content, completedAt, "完成日期").atTime(COMPLETED_TIME)
+                    : todo.getCreatedAt());
+        }
+
+        todo.setUpdatedAt(now);
+        return todo;
+    }
+
+    /**
+     * 导入时新建标签的颜色，按标签名分配
+     */
+    public static String tagColor(String tag) {
+        if (tag.contains("阿里云")) return "#ff4d4f";
+        if (tag.contains("oracle")) return "#faad14";
+        if (tag.contains("个人")) return "#52c41a";
+        if (tag.contains("业务")) return "#1890ff";
+        return "#722ed1"; // 默认紫色
+    }
+
+    private static int parseStatus(char marker) {
+        return switch (marker) {
+            case 'x', 'X' -> 2; // 已完成
+            case '/' -> 1; // 进行中
+            case '-' -> 3; // 取消
+            default -> 0; // 待办，包括其他自定义状态
+        };
+    }
+
+    private static boolean isSymbol(int c) {
+        return c == HIGHEST || c == HIGH || c == MEDIUM || c == LOW || c == LOWEST || c == CREATED
+                || c == COMPLETED || c == DUE || c == CANCELLED || c == START || c == SCHEDULED;
+    }
+
+    /**
+     * 符号之后（可隔空白）的日期位置，没有日期时返回-1
+     */
+    private static int dateAfter(String content, int pos) {
+        while (pos < content.length() && isSpace(content.charAt(pos))) {
+            pos++;
+        }
+        return isDate(content, pos) ? pos : -1;
+    }
+
+    /**
+     * pos处是否为 yyyy-MM-dd 形式的日期（只检查格式）
+     */
+    private static boolean isDate(String content, int pos) {
+        if (pos + 10 > content.length() || content.charAt(pos + 4) != '-' || content.charAt(pos + 7) != '-') {
+            return false;
+        }
+        for (int i = pos; i < pos + 10; i++) {
+            if (i != pos + 4 && i != pos + 7 && !isDigit(content.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static LocalDate parseDate(String content, int pos, String name) {
+        int year = Integer.parseInt(content, pos, pos + 4, 10);
+        int month = Integer.parseInt(content, pos + 5, pos + 7, 10);
+        int day = Integer.parseInt(content, pos + 8, pos + 10, 10);
+        if (month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+            throw new IllegalArgumentException(name + "无效: " + content.substring(pos, pos + 10));
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
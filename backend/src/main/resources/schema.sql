@@ -9,9 +9,36 @@ CREATE TABLE IF NOT EXISTS todo_items (
     image_paths TEXT, -- JSON格式存储图片路径数组
     completed_at DATETIME,
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
-    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    version INTEGER NOT NULL DEFAULT 0, -- 乐观锁版本号，每次更新加1
+    change_seq INTEGER NOT NULL DEFAULT 0 -- 最后一次写入时的变更序号（取自change_sequence），用于增量同步
 );
 
+-- 列表按 (created_at, id) 倒序分页，索引与排序保持一致以支持游标分页
+CREATE INDEX IF NOT EXISTS idx_todo_items_created_at ON todo_items (created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_todo_items_status_created_at ON todo_items (status, created_at DESC, id DESC);
+
+-- 覆盖索引，统计接口按状态和优先级分组时无需回表
+CREATE INDEX IF NOT EXISTS idx_todo_items_status_priority ON todo_items (status, priority);
+
+-- 全局变更序号，只有一行，每次写入待办事项时递增
+CREATE TABLE IF NOT EXISTS change_sequence (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    value INTEGER NOT NULL
+);
+
+INSERT OR IGNORE INTO change_sequence (id, value) VALUES (1, 0);
+
+-- 已删除待办事项的墓碑记录，增量同步时告知客户端删除
+CREATE TABLE IF NOT EXISTS todo_tombstones (
+    todo_id INTEGER PRIMARY KEY,
+    change_seq INTEGER NOT NULL,
+    deleted_at DATETIME NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_todo_tombstones_change_seq ON todo_tombstones (change_seq);
+
 -- 创建标签表
 CREATE TABLE IF NOT EXISTS tags (
     id INTEGER PRIMARY KEY AUTOINCREMENT,
@@ -20,4 +47,16 @@ CREATE TABLE IF NOT EXISTS tags (
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP
 );
 
+-- 待办事项与标签的关联表（由todo_items.tags同步维护，用于按标签精确查询）
+CREATE TABLE IF NOT EXISTS todo_tags (
+    todo_id INTEGER NOT NULL,
+    tag_id INTEGER NOT NULL,
+    PRIMARY KEY (todo_id, tag_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_todo_tags_tag_id ON todo_tags (tag_id, todo_id);
+
+-- 标题和描述的全文索引，rowid对应todo_items.id，中文按二元组切分后写入（见SearchTokenizer）
+CREATE VIRTUAL TABLE IF NOT EXISTS todo_search USING fts5(title, description, tokenize = 'unicode61');
+
 -- 默认标签已移除，用户可自行创建
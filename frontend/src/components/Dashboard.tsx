@@ -6,20 +6,20 @@ import {
   ExclamationCircleOutlined,
   FileTextOutlined,
 } from '@ant-design/icons';
-import { TodoItem, PriorityLabels, StatusLabels } from '../types';
+import { TodoStats } from '../types';
 import { todoApi } from '../services/api';
 
 const Dashboard: React.FC = () => {
-  const [todos, setTodos] = useState<TodoItem[]>([]);
+  const [stats, setStats] = useState<TodoStats | null>(null);
   const [loading, setLoading] = useState(false);
 
-  // 加载待办事项
-  const loadTodos = async () => {
+  // 加载统计数据（由服务端聚合计算）
+  const loadStats = async () => {
     setLoading(true);
     try {
-      const response = await todoApi.getAll();
+      const response = await todoApi.getStats();
       if (response.success && response.data) {
-        setTodos(response.data);
+        setStats(response.data);
       }
     } catch (error) {
       console.error('加载数据失败:', error);
@@ -29,23 +29,23 @@ const Dashboard: React.FC = () => {
   };
 
   useEffect(() => {
-    loadTodos();
+    loadStats();
   }, []);
 
   // 统计数据
-  const totalTodos = todos.length;
-  const completedTodos = todos.filter(todo => todo.status === 2).length;
-  const inProgressTodos = todos.filter(todo => todo.status === 1).length;
-  const pendingTodos = todos.filter(todo => todo.status === 0).length;
-  const highPriorityTodos = todos.filter(todo => todo.priority === 3).length;
+  const totalTodos = stats?.total ?? 0;
+  const completedTodos = stats?.byStatus[2] ?? 0;
+  const inProgressTodos = stats?.byStatus[1] ?? 0;
+  const pendingTodos = stats?.byStatus[0] ?? 0;
+  const highPriorityTodos = stats?.byPriority[3] ?? 0;
 
-  const completionRate = totalTodos > 0 ? Math.round((completedTodos / totalTodos) * 100) : 0;
+  const completionRate = Math.round(stats?.completionRate ?? 0);
 
   // 按优先级统计
   const priorityStats = {
-    high: todos.filter(todo => todo.priority === 3).length,
-    medium: todos.filter(todo => todo.priority === 2).length,
-    low: todos.filter(todo => todo.priority === 1).length,
+    high: stats?.byPriority[3] ?? 0,
+    medium: stats?.byPriority[2] ?? 0,
+    low: stats?.byPriority[1] ?? 0,
   };
 
   return (
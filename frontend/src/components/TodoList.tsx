@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import {
   Table,
   Button,
@@ -15,6 +15,7 @@ import {
   Form,
   Modal,
   Descriptions,
+  Checkbox,
 } from 'antd';
 import {
   PlusOutlined,
@@ -27,7 +28,7 @@ import {
 } from '@ant-design/icons';
 import type { ColumnsType } from 'antd/es/table';
 import dayjs from 'dayjs';
-import { TodoItem, PriorityLabels, StatusLabels, PriorityColors, StatusColors, TodoQueryParams } from '../types';
+import { TodoItem, PriorityLabels, StatusLabels, PriorityColors, StatusColors, TodoQueryParams, TodoBulkRequest, TodoStats } from '../types';
 import { todoApi, fileApi, tagApi } from '../services/api';
 import TodoForm from './TodoForm';
 
@@ -35,6 +36,9 @@ const { Option } = Select;
 const { RangePicker } = DatePicker;
 const { Search } = Input;
 
+// 列表只需要这些字段，描述和图片在查看详情时再加载
+const LIST_FIELDS = 'id,title,priority,status,tags,completedAt,createdAt,updatedAt,version';
+
 interface TodoListProps {
   onEdit?: (todo: TodoItem) => void;
 }
@@ -52,54 +56,63 @@ const TodoList: React.FC<TodoListProps> = ({ onEdit }) => {
   const [selectedTag, setSelectedTag] = useState<string | null>(null);
   const [viewingTodo, setViewingTodo] = useState<TodoItem | null>(null);
   const [showDetailModal, setShowDetailModal] = useState(false);
+  const [selectedRowKeys, setSelectedRowKeys] = useState<React.Key[]>([]);
+  const [facets, setFacets] = useState<TodoStats | null>(null);
+
+  // 将筛选条件编译为服务端筛选表达式
+  const buildFilterQuery = (queryParams?: TodoQueryParams): string => {
+    const clauses: string[] = [];
+
+    // 应用状态筛选（如果有时间过滤，自动包含已完成状态）
+    let statusesToShow = queryParams?.status ? 
+      (Array.isArray(queryParams.status) ? queryParams.status : [queryParams.status]) : 
+      defaultStatusFilter;
+    
+    // 如果有时间过滤条件，自动包含已完成状态
+    if ((queryParams?.startDate || queryParams?.endDate) && !statusesToShow.includes(2)) {
+      statusesToShow = [...statusesToShow, 2];
+    }
+    clauses.push(`status:${statusesToShow.join(',')}`);
+
+    if (queryParams?.priority) {
+      clauses.push(`priority:${queryParams.priority}`);
+    }
+    if (queryParams?.tag) {
+      clauses.push(`tag:"${queryParams.tag.replace(/(["\\])/g, '\\$1')}"`);
+    }
+
+    // 基于完成时间过滤
+    if (queryParams?.startDate || queryParams?.endDate) {
+      const startDate = queryParams.startDate ? dayjs(queryParams.startDate).format('YYYY-MM-DD') : '';
+      const endDate = queryParams.endDate ? dayjs(queryParams.endDate).format('YYYY-MM-DD') : '';
+      clauses.push(`completed:[${startDate},${endDate}]`);
+    }
+
+    return clauses.join(' AND ');
+  };
+
+  // 加载当前状态、优先级筛选下各标签的数量，显示在标签快速筛选中
+  const loadFacets = async (queryParams?: TodoQueryParams) => {
+    try {
+      const q = buildFilterQuery({ status: queryParams?.status, priority: queryParams?.priority });
+      const response = await todoApi.getFacets(q);
+      if (response.success && response.data) {
+        setFacets(response.data);
+      }
+    } catch (error) {
+      console.error('加载标签数量失败:', error);
+    }
+  };
 
   // 加载待办事项列表
   const loadTodos = async (queryParams?: TodoQueryParams) => {
+    loadFacets(queryParams);
     setLoading(true);
     try {
-      // 获取所有数据，然后在前端筛选
-      const response = await todoApi.getAll({ ...queryParams, status: undefined });
+      // 筛选在服务端完成，只传输匹配的数据
+      const response = await todoApi.getAll({ q: buildFilterQuery(queryParams), fields: LIST_FIELDS });
       if (response.success && response.data) {
-        let filteredTodos = response.data;
-        
-        // 应用状态筛选（如果有时间过滤，自动包含已完成状态）
-        let statusesToShow = queryParams?.status ? 
-          (Array.isArray(queryParams.status) ? queryParams.status : [queryParams.status]) : 
-          defaultStatusFilter;
-        
-        // 如果有时间过滤条件，自动包含已完成状态
-        if ((queryParams?.startDate || queryParams?.endDate) && !statusesToShow.includes(2)) {
-          statusesToShow = [...statusesToShow, 2];
-        }
-        
-        filteredTodos = filteredTodos.filter(todo => statusesToShow.includes(todo.status));
-        
-        // 应用其他筛选条件
-        if (queryParams?.priority) {
-          filteredTodos = filteredTodos.filter(todo => todo.priority === queryParams.priority);
-        }
-        if (queryParams?.tag) {
-          filteredTodos = filteredTodos.filter(todo => 
-            todo.tags?.some(tag => tag.toLowerCase().includes(queryParams.tag!.toLowerCase()))
-          );
-        }
-        
-        // 基于完成时间过滤
-        if (queryParams?.startDate || queryParams?.endDate) {
-          filteredTodos = filteredTodos.filter(todo => {
-            if (!todo.completedAt) return false; // 只显示有完成时间的任务
-            
-            const completedDate = dayjs(todo.completedAt);
-            const startDate = queryParams.startDate ? dayjs(queryParams.startDate).startOf('day') : null;
-            const endDate = queryParams.endDate ? dayjs(queryParams.endDate).endOf('day') : null;
-            
-            
-            if (startDate && !completedDate.isAfter(startDate) && !completedDate.isSame(startDate, 'day')) return false;
-            if (endDate && !completedDate.isBefore(endDate) && !completedDate.isSame(endDate, 'day')) return false;
-            
-            return true;
-          });
-        }
+        const filteredTodos = response.data;
         
         // 排序：先按优先级降序，再按标签分组
         filteredTodos.sort((a, b) => {
@@ -139,6 +152,40 @@ const TodoList: React.FC<TodoListProps> = ({ onEdit }) => {
     loadTags();
   }, []);
 
+  // 其他页面或设备修改数据后，通过服务端推送的事件刷新列表（短时间内的多个事件合并为一次刷新）
+  const filtersRef = useRef(filters);
+  filtersRef.current = filters;
+  useEffect(() => {
+    const events = todoApi.subscribeEvents();
+    let timer: ReturnType<typeof setTimeout> | undefined;
+    const scheduleReload = () => {
+      clearTimeout(timer);
+      timer = setTimeout(() => loadTodos(filtersRef.current), 300);
+    };
+    const todoEvents = ['todo.created', 'todo.batch_created', 'todo.updated', 'todo.status', 'todo.deleted', 'todo.archived', 'todo.bulk', 'reset'];
+    todoEvents.forEach((type) => events.addEventListener(type, scheduleReload));
+    const tagEvents = ['tag.created', 'tag.updated', 'tag.deleted'];
+    tagEvents.forEach((type) => events.addEventListener(type, () => loadTags()));
+    return () => {
+      clearTimeout(timer);
+      events.close();
+    };
+  }, []);
+
+  // 对选中的待办事项执行批量操作
+  const handleBulk = async (request: Omit<TodoBulkRequest, 'ids'>) => {
+    try {
+      const response = await todoApi.bulk({ ...request, ids: selectedRowKeys as number[] });
+      if (response.success) {
+        message.success(`批量操作完成，共 ${response.data?.affected ?? 0} 条`);
+        setSelectedRowKeys([]);
+        loadTodos(filters);
+      }
+    } catch (error) {
+      message.error('批量操作失败');
+    }
+  };
+
   // 处理筛选
   const handleFilter = (newFilters: Partial<TodoQueryParams>) => {
     const updatedFilters = { ...filters, ...newFilters };
@@ -198,16 +245,33 @@ const TodoList: React.FC<TodoListProps> = ({ onEdit }) => {
     }
   };
 
+  // 列表数据不含描述和图片，编辑和查看详情时按ID加载完整数据
+  const loadFullTodo = async (todo: TodoItem): Promise<TodoItem | null> => {
+    try {
+      const response = await todoApi.getById(todo.id);
+      return response.success && response.data ? response.data : null;
+    } catch (error) {
+      message.error('加载待办事项失败');
+      return null;
+    }
+  };
+
   // 编辑待办事项
-  const handleEdit = (todo: TodoItem) => {
-    setEditingTodo(todo);
-    setShowForm(true);
+  const handleEdit = async (todo: TodoItem) => {
+    const fullTodo = await loadFullTodo(todo);
+    if (fullTodo) {
+      setEditingTodo(fullTodo);
+      setShowForm(true);
+    }
   };
 
   // 查看待办事项详情
-  const handleViewDetail = (todo: TodoItem) => {
-    setViewingTodo(todo);
-    setShowDetailModal(true);
+  const handleViewDetail = async (todo: TodoItem) => {
+    const fullTodo = await loadFullTodo(todo);
+    if (fullTodo) {
+      setViewingTodo(fullTodo);
+      setShowDetailModal(true);
+    }
   };
 
   // 表单提交成功
@@ -506,6 +570,13 @@ const TodoList: React.FC<TodoListProps> = ({ onEdit }) => {
           />
         </Tooltip>
 
+        <Checkbox
+          checked={!!filters.includeArchived}
+          onChange={(e) => handleFilter({ includeArchived: e.target.checked || undefined })}
+        >
+          包含已归档
+        </Checkbox>
+
         <Button onClick={clearFilters}>重置筛选</Button>
 
         <Button
@@ -534,6 +605,7 @@ const TodoList: React.FC<TodoListProps> = ({ onEdit }) => {
                 onClick={() => handleTagClick(tag.name)}
               >
                 {tag.name}
+                {facets && ` (${facets.byTag[tag.name] || 0})`}
               </Tag>
             ))}
             {selectedTag && (
@@ -550,11 +622,30 @@ const TodoList: React.FC<TodoListProps> = ({ onEdit }) => {
         </div>
       )}
 
+      {/* 批量操作 */}
+      {selectedRowKeys.length > 0 && (
+        <Space style={{ marginBottom: 16 }}>
+          <span>已选择 {selectedRowKeys.length} 项</span>
+          <Button onClick={() => handleBulk({ action: 'setStatus', status: 1 })}>标记进行中</Button>
+          <Button onClick={() => handleBulk({ action: 'setStatus', status: 2 })}>标记完成</Button>
+          <Popconfirm
+            title={`确定删除选中的 ${selectedRowKeys.length} 项吗？`}
+            onConfirm={() => handleBulk({ action: 'delete' })}
+            okText="确定"
+            cancelText="取消"
+          >
+            <Button danger>批量删除</Button>
+          </Popconfirm>
+          <Button type="link" onClick={() => setSelectedRowKeys([])}>取消选择</Button>
+        </Space>
+      )}
+
       {/* 待办事项表格 */}
       <Table
         columns={columns}
         dataSource={todos}
         rowKey="id"
+        rowSelection={{ selectedRowKeys, onChange: setSelectedRowKeys }}
         loading={loading}
         scroll={{ x: 1200 }}
         pagination={{
@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { TodoItem, Tag, ApiResponse, TodoQueryParams } from '../types';
+import { TodoItem, TodoSearchHit, TodoStats, Tag, ApiResponse, TodoQueryParams, TodoBulkRequest } from '../types';
 
 const API_BASE_URL = 'http://localhost:8080/api';
 
@@ -39,6 +39,31 @@ export const todoApi = {
     return api.get('/todos', { params });
   },
 
+  // 全文检索标题和描述
+  search: (q: string, limit?: number, offset?: number): Promise<ApiResponse<TodoSearchHit[]>> => {
+    return api.get('/todos/search', { params: { q, limit, offset } });
+  },
+
+  // 增量同步：获取since之后新增、修改和删除的待办事项
+  getChanges: (since?: string, limit?: number): Promise<ApiResponse<TodoItem[]>> => {
+    return api.get('/todos/changes', { params: { since, limit } });
+  },
+
+  // 订阅变更推送（Server-Sent Events），断线后浏览器自动重连并携带Last-Event-ID
+  subscribeEvents: (): EventSource => {
+    return new EventSource(`${API_BASE_URL}/todos/events`);
+  },
+
+  // 获取统计数据
+  getStats: (): Promise<ApiResponse<TodoStats>> => {
+    return api.get('/todos/stats');
+  },
+
+  // 分面计数：筛选结果按状态、优先级、标签的数量（q只支持status、priority、tag条件）
+  getFacets: (q?: string): Promise<ApiResponse<TodoStats>> => {
+    return api.get('/todos/facets', { params: { q } });
+  },
+
   // 根据ID获取待办事项
   getById: (id: number): Promise<ApiResponse<TodoItem>> => {
     return api.get(`/todos/${id}`);
@@ -49,11 +74,22 @@ export const todoApi = {
     return api.post('/todos', todo);
   },
 
+  // 批量创建待办事项，返回按顺序生成的ID
+  createBatch: (todos: Omit<TodoItem, 'id' | 'createdAt' | 'updatedAt'>[]): Promise<ApiResponse<number[]>> => {
+    return api.post('/todos/batch', todos);
+  },
+
   // 更新待办事项
   update: (id: number, todo: Partial<TodoItem>): Promise<ApiResponse<TodoItem>> => {
     return api.put(`/todos/${id}`, todo);
   },
 
+  // 部分更新待办事项，传入version时进行版本校验（版本不一致返回409）
+  patch: (id: number, changes: Partial<TodoItem>, version?: number): Promise<ApiResponse<TodoItem>> => {
+    const headers = version !== undefined ? { 'If-Match': `"${version}"` } : undefined;
+    return api.patch(`/todos/${id}`, changes, { headers });
+  },
+
   // 删除待办事项
   delete: (id: number): Promise<ApiResponse<void>> => {
     return api.delete(`/todos/${id}`);
@@ -63,6 +99,11 @@ export const todoApi = {
   updateStatus: (id: number, status: number): Promise<ApiResponse<TodoItem>> => {
     return api.patch(`/todos/${id}/status`, { status });
   },
+
+  // 批量操作，返回实际修改或删除的记录数
+  bulk: (request: TodoBulkRequest): Promise<ApiResponse<{ affected: number }>> => {
+    return api.post('/todos/bulk', request);
+  },
 };
 
 // 标签相关API
@@ -9,6 +9,22 @@ export interface TodoItem {
   completedAt?: string;
   createdAt?: string;
   updatedAt?: string;
+  version?: number; // 乐观锁版本号
+}
+
+export interface TodoSearchHit {
+  item: TodoItem;
+  rank: number; // bm25得分，越小越相关
+  highlightedTitle?: string; // 命中关键词以<mark>标记
+  descriptionSnippet?: string;
+}
+
+export interface TodoStats {
+  total: number;
+  byStatus: Record<number, number>; // 状态 -> 数量
+  byPriority: Record<number, number>; // 优先级 -> 数量
+  byTag: Record<string, number>; // 标签名 -> 数量
+  completionRate: number; // 完成率（百分比）
 }
 
 export interface Tag {
@@ -23,14 +39,35 @@ export interface ApiResponse<T> {
   data?: T;
   message?: string;
   total?: number;
+  nextCursor?: string | null; // 游标分页时下一页的游标，为空表示没有更多数据
+  // 以下字段仅增量同步接口返回
+  deleted?: number[]; // 已删除的待办事项ID
+  nextToken?: string; // 下一次同步使用的标记
+  hasMore?: boolean; // 为true时应立即用nextToken继续同步
+  reset?: boolean; // 为true时需丢弃本地数据，data为全量数据
+}
+
+// 批量操作，ids与filter（服务端筛选表达式）至少指定一个
+export interface TodoBulkRequest {
+  action: 'setStatus' | 'setPriority' | 'addTag' | 'removeTag' | 'delete';
+  ids?: number[];
+  filter?: string;
+  status?: number;
+  priority?: number;
+  tag?: string;
 }
 
 export interface TodoQueryParams {
+  q?: string; // 服务端筛选表达式，如 status:0,1 AND priority>=2
   status?: number | number[];
   priority?: number;
   tag?: string;
   startDate?: string;
   endDate?: string;
+  limit?: number;
+  cursor?: string;
+  fields?: string; // 只返回指定字段，逗号分隔，如 id,title,status
+  includeArchived?: boolean; // 同时返回已归档的待办事项
 }
 
 export const PriorityLabels = {